@@ -0,0 +1,95 @@
+package benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single benchmark, run by {@link BenchmarkSuite}. The suite calls
+ * {@link #setUp()} once, then {@link #run()} repeatedly during the warmup and
+ * the measurement, and {@link #tearDown()} at the end.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public abstract class Benchmark {
+
+    private final String name;
+    private final Map<String, String> params = new LinkedHashMap<>();
+    private final Map<String, Object[]> secondaryMetrics = new LinkedHashMap<>();
+    private final boolean singleShot;
+
+    /**
+     * Creates a benchmark measuring the average time of many runs.
+     *
+     * @param name the name, e.g. class and method of the measured code
+     */
+    public Benchmark(String name) {
+        this(name, false);
+    }
+
+    /**
+     * Creates a new benchmark.
+     *
+     * @param name the name, e.g. class and method of the measured code
+     * @param singleShot true if the code can be measured only once, e.g. a
+     * one time initialization
+     */
+    public Benchmark(String name, boolean singleShot) {
+        this.name = name;
+        this.singleShot = singleShot;
+    }
+
+    /**
+     * Adds a parameter, reported with the result.
+     *
+     * @param key the parameter name
+     * @param value the parameter value
+     * @return this benchmark
+     */
+    public Benchmark param(String key, Object value) {
+        params.put(key, String.valueOf(value));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    /**
+     * Adds a secondary metric, reported with the result, e.g. the size of a
+     * written file.
+     *
+     * @param key the metric name
+     * @param score the value
+     * @param unit the unit of the value
+     */
+    public void addSecondaryMetric(String key, double score, String unit) {
+        secondaryMetrics.put(key, new Object[]{score, unit});
+    }
+
+    public Map<String, Object[]> getSecondaryMetrics() {
+        return secondaryMetrics;
+    }
+
+    public boolean isSingleShot() {
+        return singleShot;
+    }
+
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Runs the measured code once.
+     *
+     * @return the result of the code, so that it is not optimized away
+     * @throws Exception if the code fails, the benchmark is reported as failed
+     */
+    public abstract Object run() throws Exception;
+
+    public void tearDown() throws Exception {
+    }
+}
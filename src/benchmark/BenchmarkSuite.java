@@ -0,0 +1,290 @@
+package benchmark;
+
+import console.Log;
+import filehandling.FileHandlingUtil;
+import japy.JaPy;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.json.simple.JSONValue;
+
+/**
+ * Benchmark suite. Runs the benchmarks of the classes in
+ * {@link #BENCHMARKS_TO_RUN} and writes the results as JSON in the layout of
+ * JMH, so that results of different releases can be compared with the usual
+ * tools.
+ *
+ * Every benchmark is warmed up first, then its average time per operation is
+ * measured in several iterations of fixed length. As in JMH, the score error
+ * is the half width of the 99.9% confidence interval of the mean. Single shot
+ * benchmarks also report the peak heap used above the heap before the run.
+ *
+ * Usage: --benchmark [--report &lt;file&gt;] [--filter &lt;regex&gt;]
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class BenchmarkSuite {
+
+    public static final String BENCHMARK_ARGUMENT = "--benchmark";
+
+    // interpreter benchmarks first, they measure the start of the Python runtime
+    private static final List<String> BENCHMARKS_TO_RUN = Arrays.asList(PythonBenchmarks.class.getSimpleName(),
+            ProjectJsonConverterBenchmarks.class.getSimpleName(), GameFrameBenchmarks.class.getSimpleName(),
+            ImageStoreBenchmarks.class.getSimpleName());
+
+    private static final String REPORT_FILE_NAME = "japy-benchmark-report.json";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    // two sided 99.9% quantiles of the Student t distribution for 1 to 10 degrees of freedom
+    private static final double[] T_QUANTILES = {636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587};
+
+    // results of the measured code end up here, so that the JIT can not drop the code
+    private static volatile int sink;
+
+    private BenchmarkSuite() {
+        // use run(String[])
+    }
+
+    /**
+     * Checks if the command line arguments request the benchmarks.
+     *
+     * @param args command line arguments
+     * @return true, if the benchmarks are requested
+     */
+    public static boolean isBenchmarkMode(String[] args) {
+        return Arrays.asList(args).contains(BENCHMARK_ARGUMENT);
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args command line arguments
+     * @return the exit code, 0 if all benchmarks ran
+     */
+    public static int run(String[] args) {
+        File reportFile = new File(REPORT_FILE_NAME);
+        Pattern filter = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case BENCHMARK_ARGUMENT:
+                        break;
+                    case "--report":
+                        reportFile = new File(args[++i]);
+                        break;
+                    case "--filter":
+                        filter = Pattern.compile(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+        } catch (Exception e) {
+            Log.error(BenchmarkSuite.class, "Invalid arguments: " + e.getMessage());
+            Log.error(BenchmarkSuite.class, "Usage: " + BENCHMARK_ARGUMENT + " [--report <file>] [--filter <regex>]");
+            return 2;
+        }
+
+        boolean success = true;
+        List<Object> results = new ArrayList<>();
+        try {
+            for (String c : BENCHMARKS_TO_RUN) {
+                Object o = Class.forName(BenchmarkSuite.class.getPackage().getName() + "." + c).getDeclaredConstructor().newInstance();
+                @SuppressWarnings("unchecked")
+                List<Benchmark> benchmarks = (List<Benchmark>) o.getClass().getMethod("getBenchmarks").invoke(o);
+                for (Benchmark benchmark : benchmarks) {
+                    if (filter != null && !filter.matcher(benchmark.getName()).find()) {
+                        continue;
+                    }
+                    try {
+                        Map<String, Object> result = measure(benchmark);
+                        results.add(result);
+                        Log.info(BenchmarkSuite.class, benchmark.getName() + " " + benchmark.getParams() + ": "
+                                + String.format("%.3f", (Double) ((Map<?, ?>) result.get("primaryMetric")).get("score")) + " us/op");
+                    } catch (Exception e) {
+                        success = false;
+                        Log.error(BenchmarkSuite.class, "Benchmark " + benchmark.getName() + " " + benchmark.getParams() + " failed: " + e);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.error(BenchmarkSuite.class, e.toString());
+            return 1;
+        }
+        FileHandlingUtil.getInstance().writeStringToFile(reportFile.getAbsolutePath(), JSONValue.toJSONString(results));
+        Log.info(BenchmarkSuite.class, "Ran " + results.size() + " benchmarks. Report written to " + reportFile.getAbsolutePath());
+        return success ? 0 : 1;
+    }
+
+    private static Map<String, Object> measure(Benchmark benchmark) throws Exception {
+        benchmark.setUp();
+        List<Double> scores = new ArrayList<>();
+        int warmupIterations = 0;
+        try {
+            if (benchmark.isSingleShot()) {
+                long heapBefore = resetPeakHeap();
+                long start = System.nanoTime();
+                consume(benchmark.run());
+                scores.add((System.nanoTime() - start) / 1000.0);
+                double peakHeapMegabytes = (getPeakHeap() - heapBefore) / 1024.0 / 1024.0;
+                benchmark.addSecondaryMetric("peakHeap", peakHeapMegabytes, "MB");
+            } else {
+                warmupIterations = WARMUP_ITERATIONS;
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    measureIteration(benchmark);
+                }
+                for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+                    scores.add(measureIteration(benchmark));
+                }
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+        Map<String, Object> result = toJSONObject(benchmark, scores, warmupIterations);
+        if (!benchmark.getSecondaryMetrics().isEmpty()) {
+            Map<String, Object> secondaryMetrics = new LinkedHashMap<>();
+            for (Map.Entry<String, Object[]> metric : benchmark.getSecondaryMetrics().entrySet()) {
+                Map<String, Object> secondaryMetric = new LinkedHashMap<>();
+                secondaryMetric.put("score", metric.getValue()[0]);
+                secondaryMetric.put("scoreUnit", metric.getValue()[1]);
+                secondaryMetrics.put(metric.getKey(), secondaryMetric);
+                Log.info(BenchmarkSuite.class, benchmark.getName() + " " + benchmark.getParams() + ": "
+                        + String.format("%.1f", (Double) metric.getValue()[0]) + " " + metric.getValue()[1] + " " + metric.getKey());
+            }
+            result.put("secondaryMetrics", secondaryMetrics);
+        }
+        return result;
+    }
+
+    /**
+     * Collects garbage and resets the peak usage of the heap pools.
+     *
+     * @return the heap used after the collection in bytes
+     */
+    private static long resetPeakHeap() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Get the sum of the peak usages of the heap pools since the last reset.
+     * The pools peak at different times, so this is an upper bound.
+     *
+     * @return the peak heap in bytes
+     */
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Runs the benchmark for one iteration, at least once.
+     *
+     * @return the average time per run in microseconds
+     */
+    private static double measureIteration(Benchmark benchmark) throws Exception {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            consume(benchmark.run());
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        return elapsed / 1000.0 / operations;
+    }
+
+    private static void consume(Object result) {
+        sink ^= System.identityHashCode(result);
+    }
+
+    /**
+     * Get the half width of the 99.9% confidence interval of the mean of the
+     * scores. For more than 11 scores the quantile for 10 degrees of freedom
+     * is used, which makes the interval a bit wider than needed.
+     *
+     * @return the half width, NaN for less than two scores
+     */
+    private static double getScoreError(List<Double> scores, double mean) {
+        int n = scores.size();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double squares = 0;
+        for (double score : scores) {
+            squares += (score - mean) * (score - mean);
+        }
+        double standardDeviation = Math.sqrt(squares / (n - 1));
+        return T_QUANTILES[Math.min(n - 1, T_QUANTILES.length) - 1] * standardDeviation / Math.sqrt(n);
+    }
+
+    private static Map<String, Object> toJSONObject(Benchmark benchmark, List<Double> scores, int warmupIterations) {
+        double sum = 0;
+        List<Object> rawData = new ArrayList<>();
+        for (double score : scores) {
+            sum += score;
+            rawData.add(score);
+        }
+        List<Object> forks = new ArrayList<>();
+        forks.add(rawData);
+        double mean = sum / scores.size();
+        double scoreError = getScoreError(scores, mean);
+
+        Map<String, Object> primaryMetric = new LinkedHashMap<>();
+        primaryMetric.put("score", mean);
+        if (Double.isNaN(scoreError)) {
+            // NaN is no JSON number, JMH writes it as string
+            primaryMetric.put("scoreError", "NaN");
+            primaryMetric.put("scoreConfidence", Arrays.asList("NaN", "NaN"));
+        } else {
+            primaryMetric.put("scoreError", scoreError);
+            primaryMetric.put("scoreConfidence", Arrays.asList(mean - scoreError, mean + scoreError));
+        }
+        primaryMetric.put("scoreUnit", "us/op");
+        primaryMetric.put("rawData", forks);
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (Map.Entry<String, String> param : benchmark.getParams().entrySet()) {
+            params.put(param.getKey(), param.getValue());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jmhVersion", "none");
+        result.put("benchmark", BenchmarkSuite.class.getPackage().getName() + "." + benchmark.getName());
+        result.put("mode", benchmark.isSingleShot() ? "ss" : "avgt");
+        result.put("threads", 1);
+        result.put("forks", 0);
+        result.put("jdkVersion", System.getProperty("java.version"));
+        result.put("vmName", System.getProperty("java.vm.name"));
+        result.put("jaPyVersion", JaPy.VERSION);
+        result.put("warmupIterations", warmupIterations);
+        result.put("warmupTime", warmupIterations == 0 ? "0 ms" : TimeUnit.NANOSECONDS.toMillis(ITERATION_NANOS) + " ms");
+        result.put("measurementIterations", scores.size());
+        result.put("measurementTime", warmupIterations == 0 ? "single shot" : TimeUnit.NANOSECONDS.toMillis(ITERATION_NANOS) + " ms");
+        result.put("params", params);
+        result.put("primaryMetric", primaryMetric);
+        return result;
+    }
+}
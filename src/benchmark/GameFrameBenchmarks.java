@@ -0,0 +1,80 @@
+package benchmark;
+
+import game.FrameBuffer;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks of JaPyGame frames: a game changes some pixels, the changed
+ * regions are painted into a window sized image, as the board does on the
+ * EDT.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class GameFrameBenchmarks {
+
+    private static final int[] SIZES = {50, 100, 200};
+    // share of the pixels a game changes per frame, in percent
+    private static final int[] CHANGED_PERCENTAGES = {1, 100};
+
+    public List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for (int size : SIZES) {
+            for (int changedPercentage : CHANGED_PERCENTAGES) {
+                benchmarks.add(new FrameBenchmark(size, changedPercentage).param("size", size).param("changedPercentage", changedPercentage));
+            }
+        }
+        return benchmarks;
+    }
+
+    private static class FrameBenchmark extends Benchmark {
+
+        private final int size;
+        private final int changedPixels;
+        // the scaling of the prelude, a game window is always about 500 pixels wide
+        private final int scalingFactor;
+        private FrameBuffer frameBuffer;
+        private BufferedImage screen;
+        private Graphics2D graphics;
+        private int frame = 0;
+
+        FrameBenchmark(int size, int changedPercentage) {
+            super("FrameBuffer.frame");
+            this.size = size;
+            this.changedPixels = Math.max(1, size * size * changedPercentage / 100);
+            this.scalingFactor = 5 * 100 / size;
+        }
+
+        @Override
+        public void setUp() {
+            frameBuffer = new FrameBuffer(size, size);
+            screen = new BufferedImage(size * scalingFactor, size * scalingFactor, BufferedImage.TYPE_INT_RGB);
+            graphics = screen.createGraphics();
+        }
+
+        @Override
+        public Object run() {
+            frame++;
+            for (int i = 0; i < changedPixels; i++) {
+                // spread the changes over the whole board
+                int pixel = (int) ((i * 7919L + frame * 104729L) % (size * size));
+                frameBuffer.setPixel(pixel % size, pixel / size, (frame * 31 + i) & 0xFFFFFF);
+            }
+            List<Rectangle> regions = frameBuffer.takeDirtyRegions();
+            for (Rectangle region : regions) {
+                graphics.setClip(region.x * scalingFactor, region.y * scalingFactor, region.width * scalingFactor, region.height * scalingFactor);
+                frameBuffer.paint(graphics, scalingFactor);
+            }
+            return regions;
+        }
+
+        @Override
+        public void tearDown() {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import view.img.ImageStore;
+import view.util.ButtonUtil;
+
+/**
+ * Benchmarks of loading the button icons.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ImageStoreBenchmarks {
+
+    public List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        // the sizes and the hover values of the buttons of the editor
+        benchmarks.add(new Benchmark("ImageStore.getImageForButton") {
+            @Override
+            public Object run() {
+                return ImageStore.getImageForButton("save.png", 40, 40, ButtonUtil.PERCENTAGE_TO_LIGHT_UP_DEFAULT, ButtonUtil.ALPHA_DEFAULT);
+            }
+        }.param("icon", "save.png").param("hover", false));
+        benchmarks.add(new Benchmark("ImageStore.getImageForButton") {
+            @Override
+            public Object run() {
+                return ImageStore.getImageForButton("save.png", 40, 40, ButtonUtil.PERCENTAGE_TO_LIGHT_UP_HOVER, ButtonUtil.ALPHA_HOVER);
+            }
+        }.param("icon", "save.png").param("hover", true));
+        return benchmarks;
+    }
+}
@@ -0,0 +1,192 @@
+package benchmark;
+
+import filehandling.FileHandlingUtil;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import model.Project;
+import model.ProjectJournal;
+import model.ProjectJsonConverter;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Benchmarks of saving and loading projects of different sizes. The large
+ * project is loaded once with the streaming reader and once the old way,
+ * as a whole string parsed into a json-simple tree, to compare the peak heap.
+ * Saving and loading is also compared between JSON and compressed containers,
+ * reporting the file size, and the save before a run between rewriting the
+ * whole project and appending the edit to the journal.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectJsonConverterBenchmarks {
+
+    private static final int[] TAB_COUNTS = {1, 100, 10000};
+    private static final int LARGE_PROJECT_MEGABYTES = 200;
+    private static final int LARGE_TAB_MEGABYTES = 1;
+    private static final int DATA_PROJECT_MEGABYTES = 20;
+    private static final String TAB_CONTENT = "import JaPyGame\n\n"
+            + "class Game(JaPyGame):\n"
+            + "    def init(self):\n"
+            + "        self.x = 0\n\n"
+            + "    def iteration(self):\n"
+            + "        # \"quoted\" text, umlauts äöü and a tab\t\n"
+            + "        self.x = (self.x + 1) % SIZE\n";
+
+    public List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for (int tabCount : TAB_COUNTS) {
+            benchmarks.add(new Benchmark("ProjectJsonConverter.roundTrip") {
+
+                private Project project;
+
+                @Override
+                public void setUp() {
+                    project = createProject(tabCount);
+                }
+
+                @Override
+                public Object run() {
+                    String jsonString = ProjectJsonConverter.getInstance().projectToJsonString(project);
+                    return ProjectJsonConverter.getInstance().jsonStringToProject(jsonString);
+                }
+            }.param("tabs", tabCount));
+        }
+        for (final boolean data : new boolean[]{false, true}) {
+            for (final boolean container : new boolean[]{false, true}) {
+                benchmarks.add(new Benchmark("ProjectJsonConverter.saveLoad") {
+
+                    private Project project;
+                    private File file;
+
+                    @Override
+                    public void setUp() throws Exception {
+                        project = data ? createLargeProject(DATA_PROJECT_MEGABYTES) : createProject(TAB_COUNTS[TAB_COUNTS.length - 1]);
+                        file = File.createTempFile("japy-benchmark", ".japy");
+                        file.deleteOnExit();
+                        ProjectJsonConverter.getInstance().writeProject(project, file, container);
+                        addSecondaryMetric("fileSize", file.length() / 1024.0, "KB");
+                    }
+
+                    @Override
+                    public Object run() {
+                        ProjectJsonConverter.getInstance().writeProject(project, file, container);
+                        return ProjectJsonConverter.getInstance().readProject(file);
+                    }
+
+                    @Override
+                    public void tearDown() {
+                        file.delete();
+                    }
+                }.param("project", data ? DATA_PROJECT_MEGABYTES + " MB data" : TAB_COUNTS[TAB_COUNTS.length - 1] + " tabs").param("format", container ? "container" : "json"));
+            }
+        }
+        for (final boolean journaled : new boolean[]{false, true}) {
+            benchmarks.add(new Benchmark("ProjectJsonConverter.saveBeforeRun") {
+
+                private Project project;
+                private File file;
+                private ProjectJournal journal;
+
+                @Override
+                public void setUp() throws Exception {
+                    project = createLargeProject(DATA_PROJECT_MEGABYTES);
+                    file = File.createTempFile("japy-benchmark", ".japy");
+                    file.deleteOnExit();
+                    ProjectJsonConverter.getInstance().writeProject(project, file);
+                    journal = ProjectJournal.open(file);
+                }
+
+                @Override
+                public Object run() {
+                    if (journaled) {
+                        // a typed character, the journal is forced to disk in the background
+                        journal.insert(0, 0, "x");
+                        return journal.needsCompaction(Long.MAX_VALUE);
+                    }
+                    return ProjectJsonConverter.getInstance().writeProject(project, file);
+                }
+
+                @Override
+                public void tearDown() {
+                    journal.delete();
+                    file.delete();
+                }
+            }.param("project", DATA_PROJECT_MEGABYTES + " MB data").param("save", journaled ? "journal" : "full"));
+        }
+        for (final boolean streaming : new boolean[]{true, false}) {
+            benchmarks.add(new Benchmark("ProjectJsonConverter.readFile", true) {
+
+                private File file;
+
+                @Override
+                public void setUp() throws Exception {
+                    file = File.createTempFile("japy-benchmark", ".japy");
+                    file.deleteOnExit();
+                    ProjectJsonConverter.getInstance().writeProject(createLargeProject(LARGE_PROJECT_MEGABYTES), file);
+                }
+
+                @Override
+                public Object run() throws Exception {
+                    if (streaming) {
+                        return ProjectJsonConverter.getInstance().readProject(file);
+                    }
+                    return readProjectAsTree(file);
+                }
+
+                @Override
+                public void tearDown() {
+                    file.delete();
+                }
+            }.param("megabytes", LARGE_PROJECT_MEGABYTES).param("reader", streaming ? "stream" : "tree"));
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Reads a project like before the streaming reader, for comparison.
+     */
+    private static Project readProjectAsTree(File file) throws Exception {
+        String content = FileHandlingUtil.getInstance().readFileAsString(file.getAbsolutePath());
+        JSONObject jsonObject = (JSONObject) new JSONParser().parse(content);
+        List<String> titles = new ArrayList<>();
+        for (Object title : (JSONArray) jsonObject.get("titles")) {
+            titles.add(title.toString());
+        }
+        List<String> files = new ArrayList<>();
+        for (Object f : (JSONArray) jsonObject.get("files")) {
+            files.add(f.toString());
+        }
+        return new Project(titles, files, (String) jsonObject.get("jaPyVersion"), new Date());
+    }
+
+    private static Project createLargeProject(int megabytes) {
+        StringBuilder data = new StringBuilder("DATA = [\n");
+        for (int i = 0; data.length() < LARGE_TAB_MEGABYTES * 1024 * 1024; i++) {
+            data.append("    (").append(i).append(", \"").append(Integer.toHexString(i * 7919)).append("\"),\n");
+        }
+        data.append("]\n");
+        String tab = TAB_CONTENT + data;
+        List<String> titles = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < megabytes / LARGE_TAB_MEGABYTES; i++) {
+            titles.add("Data " + i);
+            files.add(tab);
+        }
+        return new Project(titles, files, "0.0.1", new Date());
+    }
+
+    private static Project createProject(int tabCount) {
+        List<String> titles = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < tabCount; i++) {
+            titles.add("Tab " + i);
+            files.add(TAB_CONTENT + "# " + i + "\n");
+        }
+        return new Project(titles, files, "0.0.1", new Date());
+    }
+}
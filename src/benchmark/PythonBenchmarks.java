@@ -0,0 +1,135 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.python.core.Py;
+import org.python.core.PyCode;
+import org.python.core.PyStringMap;
+import org.python.core.PySystemState;
+import org.python.util.InteractiveInterpreter;
+import python.IPythonCallback;
+import python.PythonExecution;
+import python.PythonInterpreterPool;
+import python.PythonLibConcatter;
+
+/**
+ * Benchmarks of running Python scripts: the start of the Jython runtime, a
+ * run with a new interpreter and a run with a pooled one, and getting the
+ * compiled preludes from source, from the compiled file cache and from memory.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonBenchmarks {
+
+    private static final String SCRIPT = "x = 0\n"
+            + "for i in range(1000):\n"
+            + "    x += i\n";
+    private static final String GAME_SCRIPT = "import " + PythonLibConcatter.JAPY_GAME_LIB + "\n" + SCRIPT;
+
+    public List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("PythonInterpreterPool.initializeRuntime", true) {
+            @Override
+            public Object run() {
+                // only the first call in the JVM measures something, so this benchmark runs first
+                PythonInterpreterPool.initializeRuntime();
+                return null;
+            }
+        });
+        benchmarks.add(new Benchmark("PythonExecution.run") {
+            @Override
+            public Object run() {
+                // a new interpreter for every run, as without the pool
+                PyStringMap globals = Py.newStringMap();
+                globals.__setitem__("__name__", Py.newString("__main__"));
+                InteractiveInterpreter interpreter = new InteractiveInterpreter(globals, new PySystemState());
+                interpreter.exec("import sys\n" + PythonLibConcatter.getPreludeImports());
+                interpreter.exec(SCRIPT);
+                interpreter.cleanup();
+                interpreter.close();
+                return globals;
+            }
+        }.param("interpreter", "new"));
+        benchmarks.addAll(Arrays.asList(
+                new ExecutionBenchmark(SCRIPT).param("interpreter", "pooled").param("prelude", "none"),
+                new ExecutionBenchmark(GAME_SCRIPT).param("interpreter", "pooled").param("prelude", PythonLibConcatter.JAPY_GAME_LIB)));
+        for (boolean useFileCache : new boolean[]{false, true}) {
+            benchmarks.add(new Benchmark("PythonLibConcatter.compileLib") {
+                @Override
+                public Object run() {
+                    return PythonLibConcatter.compileLib(PythonLibConcatter.JAPY_GAME_LIB, useFileCache);
+                }
+            }.param("cache", useFileCache ? "file" : "none"));
+        }
+        benchmarks.add(new Benchmark("PythonLibConcatter.getLibs") {
+            @Override
+            public Object run() {
+                // what every run pays, the preludes are compiled at most once per JVM
+                List<PyCode> libs = PythonLibConcatter.getLibs(GAME_SCRIPT);
+                return PythonLibConcatter.removeLibImports(GAME_SCRIPT) + libs.size();
+            }
+        }.param("cache", "memory"));
+        return benchmarks;
+    }
+
+    /**
+     * Runs a script the way the editor does, with an interpreter of the pool.
+     */
+    private static class ExecutionBenchmark extends Benchmark {
+
+        private final String script;
+
+        ExecutionBenchmark(String script) {
+            super("PythonExecution.run");
+            this.script = script;
+        }
+
+        @Override
+        public Object run() {
+            BenchmarkCallback callback = new BenchmarkCallback();
+            new PythonExecution(script, callback, 0, 0).run();
+            if (callback.error != null) {
+                throw new IllegalStateException(callback.error);
+            }
+            return callback;
+        }
+    }
+
+    private static class BenchmarkCallback implements IPythonCallback {
+
+        private String error;
+
+        @Override
+        public void interpreterOutputAppended(String chunk) {
+        }
+
+        @Override
+        public void alreadyRunning() {
+        }
+
+        @Override
+        public void executionQueued() {
+        }
+
+        @Override
+        public void executionStarted() {
+        }
+
+        @Override
+        public void syntaxError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public void pythonRuntimeError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public void executionCancelled() {
+            error = "cancelled";
+        }
+    }
+}
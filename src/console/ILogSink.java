@@ -0,0 +1,31 @@
+package console;
+
+/**
+ * Interface for the destinations of log messages, e.g. the standard streams
+ * or a file. Sinks are called by the writer thread of {@link Log} and closed
+ * by the thread removing them or by the shutdown hook, but never by two
+ * threads at a time, so they need no synchronization of their own.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public interface ILogSink {
+
+    /**
+     * Called for every log message.
+     *
+     * @param event the message
+     * @param line the formatted message, without line break
+     */
+    public void write(LogEvent event, String line);
+
+    /**
+     * Called after a batch of messages is written.
+     */
+    public void flush();
+
+    /**
+     * Called when the sink is removed or the application exits.
+     */
+    public void close();
+}
@@ -1,11 +1,18 @@
 package console;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import preferences.Preferences;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Log utility class.
+ * Log utility class. Messages are put into a bounded ring buffer and written
+ * to the sinks by a single writer thread, so logging never waits for a slow
+ * console. A message below the log level costs only a comparison.
  *
  * @author Clemens Strobel
  * @date 2020/02/04
@@ -17,35 +24,223 @@ public class Log {
     public static final int LOG_LEVEL_WARNING = 3;
     public static final int LOG_LEVEL_ERROR = 4;
 
-    private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    /**
+     * What to do with a message, if the ring buffer is full.
+     */
+    public static enum OverflowPolicy {
+        // drop the message and count it
+        DROP,
+        // wait until the writer made room
+        BLOCK
+    }
+
+    public static final int BUFFER_CAPACITY = 8192;
+
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long FLUSH_TIMEOUT_MILLIS = 2000;
+    private static final String[] LEVEL_NAMES = {"", "DEBUG", "INFO", "WARNING", "ERROR"};
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
+    private static final List<ILogSink> sinks = new CopyOnWriteArrayList<>();
+    // held for every call of a sink, so that a sink is never closed while the writer uses it
+    private static final Object sinkLock = new Object();
+    private static final AtomicLong droppedEventCount = new AtomicLong();
+    private static volatile int logLevel = LOG_LEVEL_INFO;
+    private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private static volatile long writtenCount = 0;
+    private static volatile boolean writerSleeping = false;
+    private static Thread writer;
+
+    static {
+        sinks.add(new StandardStreamLogSink());
+    }
 
     public static void debug(Class c, String s) {
-        if (Preferences.getInstance().logLevel < LOG_LEVEL_INFO) {
-            printStdOut(sdf.format(new Date()) + " DEBUG: " + c.getName() + ": " + s);
+        if (logLevel <= LOG_LEVEL_DEBUG) {
+            log(LOG_LEVEL_DEBUG, c, s);
         }
     }
 
     public static void info(Class c, String s) {
-        if (Preferences.getInstance().logLevel < LOG_LEVEL_WARNING) {
-            printStdOut(sdf.format(new Date()) + " INFO: " + c.getName() + ": " + s);
+        if (logLevel <= LOG_LEVEL_INFO) {
+            log(LOG_LEVEL_INFO, c, s);
         }
     }
 
     public static void warning(Class c, String s) {
-        if (Preferences.getInstance().logLevel < LOG_LEVEL_ERROR) {
-            printStdOut(sdf.format(new Date()) + " WARNING: " + c.getName() + ": " + s);
+        if (logLevel <= LOG_LEVEL_WARNING) {
+            log(LOG_LEVEL_WARNING, c, s);
         }
     }
 
     public static void error(Class c, String s) {
-        printStdErr(sdf.format(new Date()) + " ERROR: " + c.getName() + ": " + s);
+        log(LOG_LEVEL_ERROR, c, s);
+    }
+
+    /**
+     * Checks if messages of a level are logged, e.g. to skip building an
+     * expensive message.
+     *
+     * @param level the level
+     * @return true if messages of the level are logged
+     */
+    public static boolean isEnabled(int level) {
+        return level >= LOG_LEVEL_ERROR || logLevel <= level;
     }
 
-    private static void printStdOut(String s) {
-        System.out.println(s);
+    /**
+     * Sets the log level, messages below it are ignored. Errors are always
+     * logged.
+     *
+     * @param level the level
+     */
+    public static void setLogLevel(int level) {
+        logLevel = level;
     }
 
-    private static void printStdErr(String s) {
-        System.err.println(s);
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
+    public static void addSink(ILogSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes and closes a sink after the messages queued so far reached it.
+     *
+     * @param sink the sink
+     */
+    public static void removeSink(ILogSink sink) {
+        if (sinks.contains(sink)) {
+            flush();
+            synchronized (sinkLock) {
+                if (sinks.remove(sink)) {
+                    sink.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of messages dropped, because the ring buffer was full.
+     *
+     * @return the number of dropped messages
+     */
+    public static long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Waits until the messages logged so far are written, e.g. before the
+     * application exits.
+     */
+    public static void flush() {
+        long target = buffer.getOfferedCount();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        while (writtenCount < target && System.currentTimeMillis() < deadline && getWriter().isAlive()) {
+            LockSupport.unpark(getWriter());
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void log(int level, Class c, String s) {
+        LogEvent event = new LogEvent(level, System.currentTimeMillis(), c.getName(), s, Thread.currentThread().getName());
+        Thread writerThread = getWriter();
+        while (!buffer.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP || Thread.currentThread() == writerThread) {
+                droppedEventCount.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        if (writerSleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private static synchronized Thread getWriter() {
+        if (writer == null) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            }, "JaPyLogWriter");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                    synchronized (sinkLock) {
+                        for (ILogSink sink : sinks) {
+                            sink.close();
+                        }
+                    }
+                }
+            }, "JaPyLogShutdown"));
+        }
+        return writer;
+    }
+
+    private static void writeLoop() {
+        StringBuilder line = new StringBuilder();
+        long reportedDropCount = 0;
+        while (true) {
+            int batchSize = 0;
+            LogEvent event;
+            while (batchSize < MAX_BATCH_SIZE && (event = buffer.poll()) != null) {
+                write(event, line);
+                batchSize++;
+            }
+            long dropped = droppedEventCount.get();
+            if (dropped != reportedDropCount) {
+                write(new LogEvent(LOG_LEVEL_WARNING, System.currentTimeMillis(), Log.class.getName(),
+                        (dropped - reportedDropCount) + " log messages dropped, the log buffer was full.", Thread.currentThread().getName()), line);
+                reportedDropCount = dropped;
+                batchSize++;
+            }
+            if (batchSize > 0) {
+                synchronized (sinkLock) {
+                    for (ILogSink sink : sinks) {
+                        try {
+                            sink.flush();
+                        } catch (Exception e) {
+                            System.err.println("Log sink " + sink + " failed: " + e);
+                        }
+                    }
+                }
+                writtenCount = buffer.getPolledCount();
+                continue;
+            }
+            writtenCount = buffer.getPolledCount();
+            writerSleeping = true;
+            // a message may have arrived before the flag was set
+            if (buffer.getOfferedCount() == buffer.getPolledCount()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerSleeping = false;
+        }
+    }
+
+    private static void write(LogEvent event, StringBuilder line) {
+        line.setLength(0);
+        TIME_FORMATTER.formatTo(Instant.ofEpochMilli(event.getTimeMillis()), line);
+        line.append(' ').append(LEVEL_NAMES[Math.max(0, Math.min(event.getLevel(), LEVEL_NAMES.length - 1))]).append(": ")
+                .append(event.getSource()).append(": ").append(event.getMessage());
+        String formatted = line.toString();
+        synchronized (sinkLock) {
+            for (ILogSink sink : sinks) {
+                try {
+                    sink.write(event, formatted);
+                } catch (Exception e) {
+                    System.err.println("Log sink " + sink + " failed: " + e);
+                }
+            }
+        }
     }
 }
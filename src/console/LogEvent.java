@@ -0,0 +1,60 @@
+package console;
+
+/**
+ * A single log message, queued by {@link Log} and written by its writer
+ * thread.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class LogEvent {
+
+    private final int level;
+    private final long timeMillis;
+    private final String source;
+    private final String message;
+    private final String threadName;
+
+    public LogEvent(int level, long timeMillis, String source, String message, String threadName) {
+        this.level = level;
+        this.timeMillis = timeMillis;
+        this.source = source;
+        this.message = message;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Get the level.
+     *
+     * @return one of the LOG_LEVEL constants of {@link Log}
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the time the message was logged.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Get the name of the class that logged the message.
+     *
+     * @return the class name
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+}
@@ -0,0 +1,108 @@
+package console;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for log events with many producers and a
+ * single consumer. Every slot carries a sequence number that tells producers
+ * whether the slot is free and the consumer whether it is filled, so neither
+ * side ever takes a lock.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class LogRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<LogEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only changed by the consumer, volatile for size()
+    private volatile long head = 0;
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity the capacity, rounded up to a power of two
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an event, may be called by any thread.
+     *
+     * @param event the event
+     * @return false if the buffer is full
+     */
+    public boolean offer(LogEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    // publishes the event to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // the slot still holds an event of the last round
+                return false;
+            }
+            // another producer took the slot, try the next one
+        }
+    }
+
+    /**
+     * Takes the oldest event, must only be called by the consumer thread.
+     *
+     * @return the event, null if there is none
+     */
+    public LogEvent poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        LogEvent event = slots.get(index);
+        slots.set(index, null);
+        // frees the slot for the producers of the next round
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return event;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of events added so far, taken or not.
+     *
+     * @return the number of added events
+     */
+    public long getOfferedCount() {
+        return tail.get();
+    }
+
+    /**
+     * Get the number of events taken so far.
+     *
+     * @return the number of taken events
+     */
+    public long getPolledCount() {
+        return head;
+    }
+}
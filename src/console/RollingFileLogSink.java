@@ -0,0 +1,257 @@
+package console;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes log messages to a file in a log directory. The file is rotated when
+ * it gets too big or a new day starts, rotated files are compressed in the
+ * background and the oldest are deleted when the directory gets too big.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class RollingFileLogSink implements ILogSink {
+
+    public static final String FILE_EXTENSION = ".log";
+    public static final String COMPRESSED_FILE_EXTENSION = ".log.gz";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final String baseName;
+    private final File activeFile;
+    private final long maxFileBytes;
+    private final long maxTotalBytes;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "JaPyLogCompressor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private long fileBytes;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a new file sink.
+     *
+     * @param directory the log directory, created if missing
+     * @param baseName the file name without extension, e.g. "japy"
+     * @param maxFileBytes the size after which the file is rotated
+     * @param maxTotalBytes the size of all compressed files after which the
+     * oldest are deleted
+     */
+    public RollingFileLogSink(File directory, String baseName, long maxFileBytes, long maxTotalBytes) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.activeFile = new File(directory, baseName + FILE_EXTENSION);
+        this.maxFileBytes = Math.max(BUFFER_SIZE, maxFileBytes);
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    public File getActiveFile() {
+        return activeFile;
+    }
+
+    @Override
+    public void write(LogEvent event, String line) {
+        if (failed || closed) {
+            return;
+        }
+        try {
+            LocalDate date = Instant.ofEpochMilli(event.getTimeMillis()).atZone(zone).toLocalDate();
+            byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            if (channel == null) {
+                open(date);
+            } else if (!date.equals(fileDate) || fileBytes + buffer.position() + bytes.length > maxFileBytes) {
+                rotate(date);
+            }
+            if (bytes.length > buffer.remaining()) {
+                drain();
+            }
+            if (bytes.length > buffer.capacity()) {
+                fileBytes += channel.write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (failed || channel == null) {
+            return;
+        }
+        try {
+            drain();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void open(LocalDate date) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create log directory " + directory);
+        }
+        // a file left from an earlier day is rotated before the first write
+        if (activeFile.exists() && activeFile.length() > 0) {
+            LocalDate lastWritten = Instant.ofEpochMilli(activeFile.lastModified()).atZone(zone).toLocalDate();
+            if (!lastWritten.equals(date) || activeFile.length() >= maxFileBytes) {
+                moveAway(lastWritten);
+            }
+        }
+        channel = FileChannel.open(activeFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileDate = date;
+        fileBytes = channel.size();
+    }
+
+    private void rotate(LocalDate date) throws IOException {
+        drain();
+        channel.close();
+        channel = null;
+        moveAway(fileDate);
+        open(date);
+    }
+
+    private void moveAway(LocalDate date) throws IOException {
+        File rotated;
+        int index = 0;
+        do {
+            index++;
+            String name = baseName + "-" + date + "-" + index;
+            rotated = new File(directory, name + FILE_EXTENSION);
+            if (new File(directory, name + COMPRESSED_FILE_EXTENSION).exists()) {
+                rotated = null;
+            }
+        } while (rotated == null || rotated.exists());
+        if (!activeFile.renameTo(rotated)) {
+            throw new IOException("Could not rotate log file " + activeFile + " to " + rotated);
+        }
+        final File toCompress = rotated;
+        compressor.execute(new Runnable() {
+            @Override
+            public void run() {
+                compress(toCompress);
+                deleteOldest();
+            }
+        });
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void fail(IOException e) {
+        // logging the error would end up here again
+        failed = true;
+        System.err.println("Log file " + activeFile + " disabled: " + e);
+    }
+
+    private static void compress(File file) {
+        File compressed = new File(file.getParentFile(), file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length()) + COMPRESSED_FILE_EXTENSION);
+        try (InputStream in = new FileInputStream(file); OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed), BUFFER_SIZE)) {
+            byte[] bytes = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(bytes)) > 0) {
+                out.write(bytes, 0, read);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not compress log file " + file + ": " + e);
+            compressed.delete();
+            return;
+        }
+        compressed.setLastModified(file.lastModified());
+        file.delete();
+    }
+
+    private void deleteOldest() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> rotatedFiles = new ArrayList<>();
+        long totalBytes = 0;
+        for (File f : Arrays.asList(files)) {
+            String name = f.getName();
+            // files still waiting for compression are left alone
+            if (name.startsWith(baseName + "-") && name.endsWith(COMPRESSED_FILE_EXTENSION)) {
+                rotatedFiles.add(f);
+                totalBytes += f.length();
+            }
+        }
+        Collections.sort(rotatedFiles, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File f : rotatedFiles) {
+            if (totalBytes <= maxTotalBytes) {
+                break;
+            }
+            long length = f.length();
+            if (f.delete()) {
+                totalBytes -= length;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package console;
+
+import java.io.PrintStream;
+
+/**
+ * Writes log messages to System.out, errors to System.err. When the console
+ * window is shown, both streams end up there.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class StandardStreamLogSink implements ILogSink {
+
+    private final StringBuilder out = new StringBuilder();
+    private final StringBuilder err = new StringBuilder();
+
+    @Override
+    public void write(LogEvent event, String line) {
+        (event.getLevel() >= Log.LOG_LEVEL_ERROR ? err : out).append(line).append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() {
+        // one write per stream and batch, the streams flush on every line break
+        print(System.out, out);
+        print(System.err, err);
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private static void print(PrintStream stream, StringBuilder sb) {
+        if (sb.length() > 0) {
+            stream.print(sb);
+            stream.flush();
+            sb.setLength(0);
+        }
+    }
+}
@@ -5,38 +5,59 @@ import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.PrintStream;
 import javax.swing.ImageIcon;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
 import javax.swing.JToggleButton;
+import javax.swing.Timer;
+import preferences.Preferences;
 import view.img.ImageStore;
+import view.util.ConsolePane;
 
 /**
- * Console window.
+ * Console window. Text written to System.out and System.err is collected from
+ * any thread and appended to a bounded {@link ConsolePane} on the EDT at a
+ * fixed refresh rate, so a burst of lines costs one repaint per refresh.
  *
  * @author Clemens Strobel
  * @date 2020/02/04
  */
 public class StdOutErrSwingConsole extends JFrame {
 
+    private static final int REFRESH_INTERVAL_MILLIS = 50;
+    private static final int THROUGHPUT_INTERVAL_MILLIS = 1000;
+
     private PrintOutErrStream printOutErrStream;
     private JScrollPane consoleScrollPane;
-    private JTextArea consoleTextArea;
+    private ConsolePane consolePane;
     private JToggleButton toggleScrollToBottomButton;
+    private JLabel throughputLabel;
+    private Timer refreshTimer;
+    // only used on the EDT
+    private long throughputIntervalStart = System.currentTimeMillis();
+    private long throughputIntervalChars = 0;
+    private long throughputIntervalLines = 0;
+    private long charsPerSecond = 0;
+    private long linesPerSecond = 0;
 
     private static StdOutErrSwingConsole instance;
 
     private StdOutErrSwingConsole(String name) {
         super(name);
         init();
-        printOutErrStream = new PrintOutErrStream(this.consoleTextArea);
+        printOutErrStream = new PrintOutErrStream(Preferences.getInstance().consoleMaxChars);
+        refreshTimer = new Timer(REFRESH_INTERVAL_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
         System.setErr(new PrintStream(printOutErrStream, true));
         System.setOut(new PrintStream(printOutErrStream, true));
         setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
@@ -63,13 +84,10 @@ public class StdOutErrSwingConsole extends JFrame {
         GridBagConstraints constraints = new GridBagConstraints();
         JPanel content = new JPanel(new GridBagLayout());
 
-        consoleTextArea = new JTextArea();
-        consoleTextArea.setColumns(20);
-        consoleTextArea.setRows(5);
-        consoleTextArea.setEditable(false);
+        consolePane = new ConsolePane(Preferences.getInstance().consoleMaxLines, Preferences.getInstance().consoleMaxChars);
 
         consoleScrollPane = new JScrollPane();
-        consoleScrollPane.setViewportView(consoleTextArea);
+        consoleScrollPane.setViewportView(consolePane);
 
         constraints.gridx = 0;
         constraints.gridy = 0;
@@ -77,7 +95,7 @@ public class StdOutErrSwingConsole extends JFrame {
         constraints.fill = GridBagConstraints.BOTH;
         constraints.weighty = 0.99;
         constraints.weightx = 1;
-        constraints.gridwidth = 2;
+        constraints.gridwidth = 3;
         content.add(consoleScrollPane, constraints);
 
         JButton clearButton = new JButton("Clear");
@@ -85,6 +103,7 @@ public class StdOutErrSwingConsole extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 printOutErrStream.clear();
+                consolePane.setText("");
             }
         });
 
@@ -94,7 +113,7 @@ public class StdOutErrSwingConsole extends JFrame {
         constraints.anchor = GridBagConstraints.PAGE_START;
         constraints.fill = GridBagConstraints.BOTH;
         constraints.weighty = 0.01;
-        constraints.weightx = 0.6;
+        constraints.weightx = 0.4;
         content.add(clearButton, constraints);
 
         toggleScrollToBottomButton = new JToggleButton("Scroll to bottom");
@@ -105,9 +124,19 @@ public class StdOutErrSwingConsole extends JFrame {
         constraints.anchor = GridBagConstraints.PAGE_START;
         constraints.fill = GridBagConstraints.BOTH;
         constraints.weighty = 0.01;
-        constraints.weightx = 0.4;
+        constraints.weightx = 0.3;
         content.add(toggleScrollToBottomButton, constraints);
 
+        throughputLabel = new JLabel();
+
+        constraints.gridx = 2;
+        constraints.gridy = 1;
+        constraints.anchor = GridBagConstraints.PAGE_START;
+        constraints.fill = GridBagConstraints.BOTH;
+        constraints.weighty = 0.01;
+        constraints.weightx = 0.3;
+        content.add(throughputLabel, constraints);
+
         getContentPane().add(content);
 
         setSize(900, 500);
@@ -121,33 +150,116 @@ public class StdOutErrSwingConsole extends JFrame {
         }
     }
 
-    private class PrintOutErrStream extends ByteArrayOutputStream {
+    /**
+     * Get the number of characters appended in the last second.
+     *
+     * @return the characters per second
+     */
+    public long getCharsPerSecond() {
+        return charsPerSecond;
+    }
 
-        final int maxTextAreaSize = 1000000;
-        private JTextArea textArea;
+    /**
+     * Get the number of lines appended in the last second.
+     *
+     * @return the lines per second
+     */
+    public long getLinesPerSecond() {
+        return linesPerSecond;
+    }
+
+    private void refresh() {
+        String text = printOutErrStream.takePending();
+        if (!text.isEmpty()) {
+            consolePane.append(text);
+            throughputIntervalChars += text.length();
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') {
+                    throughputIntervalLines++;
+                }
+            }
+            if (toggleScrollToBottomButton.isSelected()) {
+                consolePane.scrollToBottom();
+            }
+        }
+        long now = System.currentTimeMillis();
+        long elapsed = now - throughputIntervalStart;
+        if (elapsed >= THROUGHPUT_INTERVAL_MILLIS) {
+            charsPerSecond = throughputIntervalChars * 1000 / elapsed;
+            linesPerSecond = throughputIntervalLines * 1000 / elapsed;
+            throughputIntervalStart = now;
+            throughputIntervalChars = 0;
+            throughputIntervalLines = 0;
+            throughputLabel.setText(" " + linesPerSecond + " lines/s, " + charsPerSecond + " chars/s, "
+                    + (consolePane.getDroppedLineCount() + printOutErrStream.getDroppedLineCount()) + " lines dropped");
+        }
+    }
 
-        public PrintOutErrStream(JTextArea textArea) {
-            this.textArea = textArea;
+    /**
+     * Collects the text of System.out and System.err until the next refresh.
+     * If the EDT falls behind, the oldest pending text is dropped, it would
+     * not fit into the console anyway.
+     */
+    private static class PrintOutErrStream extends ByteArrayOutputStream {
+
+        private final long maxPendingChars;
+        private final StringBuilder pending = new StringBuilder();
+        private long droppedLines = 0;
+
+        public PrintOutErrStream(long maxPendingChars) {
+            this.maxPendingChars = Math.max(1, maxPendingChars);
         }
 
-        public void clear() {
-            textArea.setText("");
+        public synchronized void clear() {
+            super.reset();
+            pending.setLength(0);
         }
 
-        public void flush() throws IOException {
-            synchronized (this) {
-                super.flush();
-                String outputStr = this.toString();
-                super.reset();
-                if (textArea.getText().length() > maxTextAreaSize) {
-                    textArea.replaceRange("", 0, 1000);
+        @Override
+        public synchronized void flush() {
+            if (size() == 0) {
+                return;
+            }
+            pending.append(toString());
+            super.reset();
+            if (pending.length() > maxPendingChars) {
+                // cut at a line break, the console keeps whole lines
+                int cut = (int) (pending.length() - maxPendingChars);
+                int lineBreak = pending.indexOf("\n", cut);
+                cut = lineBreak < 0 ? cut : lineBreak + 1;
+                for (int i = 0; i < cut; i++) {
+                    if (pending.charAt(i) == '\n') {
+                        droppedLines++;
+                    }
                 }
-                textArea.append(outputStr);
-                if (toggleScrollToBottomButton.isSelected()) {
-                    JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                    vertical.setValue(vertical.getMaximum() + 500);
+                if (pending.charAt(cut - 1) != '\n') {
+                    // the start of a line that is cut off
+                    droppedLines++;
                 }
+                pending.delete(0, cut);
             }
         }
+
+        /**
+         * Takes the text collected since the last call.
+         *
+         * @return the text, may be empty
+         */
+        public synchronized String takePending() {
+            flush();
+            String text = pending.toString();
+            pending.setLength(0);
+            return text;
+        }
+
+        /**
+         * Get the number of lines dropped before they reached the console,
+         * counted like {@link ConsolePane#getDroppedLineCount()}.
+         *
+         * @return the dropped lines
+         */
+        public synchronized long getDroppedLineCount() {
+            return droppedLines;
+        }
     }
 }
@@ -5,14 +5,20 @@ import console.StdOutErrSwingConsole;
 import filehandling.FileHandlingUtil;
 import filehandling.HttpFileUtil;
 import japy.JaPy;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 import model.Project;
+import model.ProjectIndex;
+import model.ProjectJournal;
 import model.ProjectJsonConverter;
 import preferences.Preferences;
+import python.PythonInterpreterPool;
 import view.Editor;
 import view.MainMenu;
 import view.View;
@@ -31,6 +37,11 @@ public class Control {
 
     private static Control instance;
     private String lastSavePath = "";
+    // records the edits of the project at lastSavePath
+    private ProjectJournal journal;
+    // actions waiting for failed saves, offered again in one dialog
+    private final List<Runnable> failedSaveActions = new ArrayList<>();
+    private boolean saveFailedDialogShown;
 
     private Control() {
         // hide constructor, singleton pattern
@@ -51,11 +62,13 @@ public class Control {
     public void init() {
         if (JaPy.IS_DEBUG) {
             Preferences.getInstance().logLevel = Log.LOG_LEVEL_DEBUG;
+            Log.setLogLevel(Log.LOG_LEVEL_DEBUG);
             Preferences.getInstance().showConsole = true;
         }
         if (Preferences.getInstance().showConsole) {
             StdOutErrSwingConsole.getInstance(L10n.getString("JaPy"));
         }
+        PythonInterpreterPool.getInstance().fill();
         View.getInstance().setContent(MainMenu.getInstance());
     }
 
@@ -70,13 +83,18 @@ public class Control {
             LoadingAnimation.killLoadingAnim();
             switch (selection) {
                 case 0:
+                    // the journal is kept, its edits are offered when the project is loaded next time
+                    closeJournal();
                     System.exit(0);
                     break;
                 case 1:
-                    boolean success = saveCurrentProject();
-                    if (success) {
-                        System.exit(0);
-                    }
+                    saveCurrentProject(true, new Runnable() {
+                        @Override
+                        public void run() {
+                            closeJournal();
+                            System.exit(0);
+                        }
+                    });
                     break;
                 case 2:
                 default:
@@ -87,6 +105,7 @@ public class Control {
             int selection = dialog.show();
             if (selection == GenericDialog.SELECTION_OK) {
                 LoadingAnimation.killLoadingAnim();
+                closeJournal();
                 System.exit(0);
             }
         }
@@ -97,6 +116,18 @@ public class Control {
     }
 
     public boolean saveCurrentProject(boolean newFile) {
+        return saveCurrentProject(newFile, null);
+    }
+
+    /**
+     * Saves the project in the background, the UI is not blocked while the
+     * file is written.
+     *
+     * @param newFile true to ask for the file to save to
+     * @param onSaved run on the EDT when the project was saved, may be null
+     * @return true if the save was started
+     */
+    public boolean saveCurrentProject(boolean newFile, Runnable onSaved) {
         if (newFile || lastSavePath == null || lastSavePath.isEmpty()) {
             String path = FileHandlingUtil.getInstance().showSaveFileSelector();
             if (path != null) {
@@ -106,16 +137,127 @@ public class Control {
                 lastSavePath = path;
             }
         }
-        if (lastSavePath != null) {
-            Project project = new Project(Editor.getInstance().getEditorTitles(), Editor.getInstance().getEditorContents(), JaPy.VERSION, new Date());
-            String content = ProjectJsonConverter.getInstance().projectToJsonString(project);
-            FileHandlingUtil.getInstance().writeStringToFile(lastSavePath, content);
-            return true;
+        if (lastSavePath != null && !lastSavePath.isEmpty()) {
+            return startSave(new File(lastSavePath), onSaved);
         }
         return false;
     }
 
+    /**
+     * Saves the project before a run. The edits are already in the journal,
+     * so the project file is only rewritten in the background when the
+     * journal has grown too large, and the run does not wait for it.
+     */
+    public void autosaveCurrentProject() {
+        if (journal == null) {
+            saveCurrentProject(false);
+        } else if (journal.needsCompaction(Preferences.getInstance().journalMaxKilobytes * 1024L)) {
+            startSave(journal.getProjectFile(), null);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the editor and writes it on the journal thread,
+     * where it replaces a save that did not start yet.
+     */
+    private boolean startSave(final File file, final Runnable onSaved) {
+        final Editor.EditorSnapshot snapshot;
+        try {
+            snapshot = Editor.getInstance().createSnapshot();
+        } catch (IOException e) {
+            Log.error(Control.class, "Could not save project: " + e.getMessage());
+            return false;
+        }
+        final Project project = new Project(snapshot.getTitles(), snapshot.getContents(), JaPy.VERSION, new Date());
+        final ProjectJournal previousJournal = journal;
+        if (journal == null || !journal.getProjectFile().equals(file.getAbsoluteFile())) {
+            openJournal(file);
+        }
+        journal.compact(project, Preferences.getInstance().compressProjects, new ProjectJournal.ICompactionCallback() {
+            @Override
+            public void compacted(final ProjectIndex index, final Project writtenProject) {
+                if (writtenProject == project) {
+                    // saves that are queued already read the unloaded tabs from the new file
+                    snapshot.saved(index);
+                }
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        // a replaced save is not marked, its snapshot does not match the file
+                        projectSaved(index, writtenProject == project ? snapshot : null, previousJournal, onSaved);
+                    }
+                });
+            }
+
+            @Override
+            public void failed() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        saveFailed(file, onSaved);
+                    }
+                });
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Asks whether to retry a save that failed. The edits are still in the
+     * editor and the journal, so nothing is lost if the save is cancelled,
+     * only the action waiting for the save is not run.
+     *
+     * @param file the file that could not be written
+     * @param onSaved the action waiting for the save, may be null
+     */
+    private void saveFailed(File file, Runnable onSaved) {
+        if (onSaved != null) {
+            failedSaveActions.add(onSaved);
+        }
+        if (saveFailedDialogShown) {
+            // saves that were merged fail together, the dialog that is shown covers them
+            return;
+        }
+        saveFailedDialogShown = true;
+        List<String> options = new ArrayList<>();
+        options.add(L10n.getString("retrySave"));
+        options.add(L10n.getString("cancel"));
+        GenericDialog dialog = new GenericDialog(L10n.getString("saveFailed"), Arrays.asList(new JLabel(LabelUtil.styleLabel(file.getAbsolutePath() + "<br>" + L10n.getString("saveFailedChangesInJournal")))), options);
+        int selection = dialog.show();
+        saveFailedDialogShown = false;
+        final List<Runnable> actions = new ArrayList<>(failedSaveActions);
+        failedSaveActions.clear();
+        if (selection == 0) {
+            startSave(file, actions.isEmpty() ? null : new Runnable() {
+                @Override
+                public void run() {
+                    for (Runnable action : actions) {
+                        action.run();
+                    }
+                }
+            });
+        } else {
+            Log.info(Control.class, "Save to " + file + " cancelled, the edits are kept in the journal");
+        }
+    }
+
+    private void projectSaved(ProjectIndex index, Editor.EditorSnapshot snapshot, ProjectJournal previousJournal, Runnable onSaved) {
+        if (previousJournal != null && previousJournal != journal) {
+            // the edits of the previous file are saved in the new one
+            previousJournal.delete();
+        }
+        if (snapshot != null) {
+            // unloaded tabs are read from the new file from now on
+            Editor.getInstance().projectSaved(index, snapshot);
+        }
+        Log.info(Control.class, "Project saved to " + index.getFile());
+        if (onSaved != null) {
+            onSaved.run();
+        }
+    }
+
     public void loadEmptyProject() {
+        closeJournal();
         lastSavePath = null;
         List<String> titles = new ArrayList<>();
         titles.add(L10n.getString("new") + "_1");
@@ -136,27 +278,16 @@ public class Control {
             switch (selection) {
                 case 0:
                     Editor.getInstance().clearEditors();
-                    String path = FileHandlingUtil.getInstance().showOpenFileSelector();
-                    if (path != null) {
-                        lastSavePath = path;
-                        String content = FileHandlingUtil.getInstance().readFileAsString(path);
-                        Project project = ProjectJsonConverter.getInstance().jsonStringToProject(content);
-                        Editor.getInstance().setEditorContents(project.getTitles(), project.getFiles());
-                    }
+                    loadProject(FileHandlingUtil.getInstance().showOpenFileSelector());
                     break;
                 case 1:
-                    boolean success = saveCurrentProject();
-                    if (success) {
-                        Editor.getInstance().clearEditors();
-                        String pathToLoad = FileHandlingUtil.getInstance().showOpenFileSelector();
-                        if (pathToLoad != null) {
-                            lastSavePath = pathToLoad;
-                            String content = FileHandlingUtil.getInstance().readFileAsString(pathToLoad);
-                            Project project = ProjectJsonConverter.getInstance().jsonStringToProject(content);
-                            Editor.getInstance().setEditorContents(project.getTitles(), project.getFiles());
+                    saveCurrentProject(true, new Runnable() {
+                        @Override
+                        public void run() {
+                            Editor.getInstance().clearEditors();
+                            loadProject(FileHandlingUtil.getInstance().showOpenFileSelector());
                         }
-                        break;
-                    }
+                    });
                     break;
                 case 2:
                 default:
@@ -164,14 +295,63 @@ public class Control {
             }
         } else {
             Editor.getInstance().clearEditors();
-            String path = FileHandlingUtil.getInstance().showOpenFileSelector();
-            if (path != null) {
-                lastSavePath = path;
-                String content = FileHandlingUtil.getInstance().readFileAsString(path);
-                Project project = ProjectJsonConverter.getInstance().jsonStringToProject(content);
-                Editor.getInstance().setEditorContents(project.getTitles(), project.getFiles());
+            loadProject(FileHandlingUtil.getInstance().showOpenFileSelector());
+        }
+    }
+
+    /**
+     * Loads a project file, after offering to recover the edits of its
+     * journal if JaPy was not closed after saving it.
+     *
+     * @param path the path of the project file, null to do nothing
+     */
+    private void loadProject(String path) {
+        if (path == null) {
+            return;
+        }
+        closeJournal();
+        lastSavePath = path;
+        File file = new File(path);
+        if (ProjectJournal.hasChanges(file)) {
+            List<String> options = new ArrayList<>();
+            options.add(L10n.getString("recoverChanges"));
+            options.add(L10n.getString("discardChanges"));
+            GenericDialog dialog = new GenericDialog(L10n.getString("recoverChangesQuestion"), Arrays.asList(new JLabel(LabelUtil.styleLabel(L10n.getString("projectHasUnsavedChanges")))), options);
+            if (dialog.show() == 0) {
+                Project project = null;
+                try {
+                    project = ProjectJournal.recover(file);
+                } catch (IOException e) {
+                    Log.error(Control.class, "Could not recover project: " + e.getMessage());
+                }
+                // the journal must not be replaced if its edits were not saved
+                if (project == null || !ProjectJsonConverter.getInstance().writeProject(project, file, Preferences.getInstance().compressProjects)) {
+                    lastSavePath = null;
+                    return;
+                }
             }
         }
+        ProjectIndex index = ProjectJsonConverter.getInstance().indexProject(file);
+        if (index != null) {
+            openJournal(file);
+            Editor.getInstance().setEditorContents(index);
+        }
+    }
+
+    private void openJournal(File file) {
+        journal = ProjectJournal.open(file);
+        Editor.getInstance().setJournal(journal);
+    }
+
+    /**
+     * Closes the journal, waits for the saves that were started.
+     */
+    private void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        Editor.getInstance().setJournal(null);
     }
 
     public void loadProjectFromNetwork(String path) {
@@ -179,6 +359,7 @@ public class Control {
         HttpFileUtil.getInstance().getFileViaHttp(path, new HttpFileUtil.IHttpCallback() {
             @Override
             public void success(String data) {
+                closeJournal();
                 lastSavePath = null;
                 Project project = ProjectJsonConverter.getInstance().jsonStringToProject(data);
                 Editor.getInstance().setEditorContents(project.getTitles(), project.getFiles());
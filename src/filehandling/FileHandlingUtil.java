@@ -3,13 +3,20 @@ package filehandling;
 import console.Log;
 import view.*;
 import japy.JaPy;
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.FileWriter;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
@@ -70,13 +77,81 @@ public class FileHandlingUtil {
         return null;
     }
 
-    public void writeStringToFile(String filePath, String content) {
+    public void writeStringToFile(String filePath, final String content) {
+        writeFileAtomically(new File(filePath), new IChannelWriter() {
+            @Override
+            public boolean write(FileChannel channel) throws IOException {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+                writer.write(content);
+                writer.flush();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Writes a file through a temporary file next to it, which is forced to
+     * disk and then moved over the file. If JaPy or the system crashes, the
+     * file is either the old or the new one, never a part of it.
+     *
+     * @param file the file, replaced if it exists
+     * @param channelWriter writes the content to the temporary file
+     * @return true if the file was written
+     */
+    public boolean writeFileAtomically(File file, IChannelWriter channelWriter) {
+        File tempFile = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        boolean success = false;
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            success = channelWriter.write(channel);
+            if (success) {
+                channel.force(true);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            success = false;
+            Log.error(FileHandlingUtil.class, "Error writing to file " + tempFile + ": " + e.getMessage());
+        }
         try {
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePath), "UTF-8"));
-            writer.write(content);
-            writer.close();
-        } catch (Exception e) {
-            Log.error(FileHandlingUtil.class, "Error writing to file " + filePath + ": " + e.getMessage());
+            if (success) {
+                try {
+                    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                forceDirectory(file.getAbsoluteFile().getParentFile());
+                return true;
+            }
+            Files.deleteIfExists(tempFile.toPath());
+        } catch (IOException e) {
+            Log.error(FileHandlingUtil.class, "Error writing to file " + file + ": " + e.getMessage());
         }
+        return false;
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so that a moved file is
+     * found there after a crash.
+     */
+    private void forceDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories can not be opened on all systems, e.g. Windows
+        }
+    }
+
+    /**
+     * Writes the content of a file to a channel.
+     */
+    public interface IChannelWriter {
+
+        /**
+         * Writes the content, the channel is closed by the caller.
+         *
+         * @param channel the channel
+         * @return false if the content could not be written and the file must
+         * not be replaced
+         * @throws IOException if the channel fails
+         */
+        boolean write(FileChannel channel) throws IOException;
     }
 }
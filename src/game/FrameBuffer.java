@@ -0,0 +1,285 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Pixel buffer of a JaPyGame. The pixels are stored in the int raster of an
+ * image, so a whole frame is drawn with a single drawImage call. Changed
+ * pixels are tracked in tiles, so that only the changed parts of a frame are
+ * repainted. The game logic may change pixels on another thread than the
+ * one painting them.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class FrameBuffer {
+
+    public static final int TILE_SIZE = 4;
+
+    // more dirty rectangles are painted as one bounding rectangle
+    private static final int MAX_DIRTY_RECTANGLES = 32;
+
+    private final int width;
+    private final int height;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final List<List<Color>> pixelColumns;
+    private final int tilesX;
+    private final int tilesY;
+    private final boolean[] dirtyTiles;
+    private boolean dirty = true;
+    private int lastRepaintedCellCount = 0;
+
+    public FrameBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        pixelColumns = new PixelColumns();
+        tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        dirtyTiles = new boolean[tilesX * tilesY];
+        Arrays.fill(dirtyTiles, true);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setPixel(int x, int y, Color color) {
+        setPixel(x, y, color.getRGB());
+    }
+
+    public synchronized void setPixel(int x, int y, int rgb) {
+        checkBounds(x, y);
+        int index = y * width + x;
+        int value = rgb & 0xFFFFFF;
+        if (pixels[index] != value) {
+            pixels[index] = value;
+            dirtyTiles[(y / TILE_SIZE) * tilesX + x / TILE_SIZE] = true;
+            dirty = true;
+        }
+    }
+
+    public Color getPixel(int x, int y) {
+        return new Color(getPixelRgb(x, y));
+    }
+
+    public int getPixelRgb(int x, int y) {
+        checkBounds(x, y);
+        return pixels[y * width + x];
+    }
+
+    public synchronized void fill(Color color) {
+        Arrays.fill(pixels, color.getRGB() & 0xFFFFFF);
+        markAllDirty();
+    }
+
+    /**
+     * Sets all pixels to black.
+     */
+    public synchronized void clear() {
+        Arrays.fill(pixels, 0);
+        markAllDirty();
+    }
+
+    /**
+     * Get the regions changed since the last call and marks them as clean.
+     * Changed tiles next to each other in a row are merged into one region.
+     *
+     * @return the changed regions in pixel coordinates
+     */
+    public synchronized List<Rectangle> takeDirtyRegions() {
+        List<Rectangle> regions = new ArrayList<>();
+        if (!dirty) {
+            return regions;
+        }
+        for (int tileY = 0; tileY < tilesY; tileY++) {
+            int runStart = -1;
+            for (int tileX = 0; tileX <= tilesX; tileX++) {
+                boolean tileDirty = tileX < tilesX && dirtyTiles[tileY * tilesX + tileX];
+                if (tileDirty && runStart < 0) {
+                    runStart = tileX;
+                } else if (!tileDirty && runStart >= 0) {
+                    Rectangle region = new Rectangle(runStart * TILE_SIZE, tileY * TILE_SIZE, (tileX - runStart) * TILE_SIZE, TILE_SIZE);
+                    regions.add(region.intersection(new Rectangle(0, 0, width, height)));
+                    runStart = -1;
+                }
+            }
+        }
+        Arrays.fill(dirtyTiles, false);
+        dirty = false;
+        if (regions.size() > MAX_DIRTY_RECTANGLES) {
+            Rectangle bounds = new Rectangle(regions.get(0));
+            for (Rectangle region : regions) {
+                bounds.add(region);
+            }
+            regions.clear();
+            regions.add(bounds);
+        }
+        return regions;
+    }
+
+    /**
+     * Repaints the regions of a component that changed since the last call.
+     * On the EDT the regions are painted right away, one by one, otherwise
+     * the repaint is requested.
+     *
+     * @param component the component showing this buffer
+     * @param scalingFactor the size of a pixel on the screen
+     */
+    public void repaintDirty(JComponent component, int scalingFactor) {
+        boolean onEdt = SwingUtilities.isEventDispatchThread();
+        int repaintedCells = 0;
+        for (Rectangle region : takeDirtyRegions()) {
+            repaintedCells += region.width * region.height;
+            if (onEdt) {
+                component.paintImmediately(region.x * scalingFactor, region.y * scalingFactor, region.width * scalingFactor, region.height * scalingFactor);
+            } else {
+                component.repaint(region.x * scalingFactor, region.y * scalingFactor, region.width * scalingFactor, region.height * scalingFactor);
+            }
+        }
+        lastRepaintedCellCount = repaintedCells;
+    }
+
+    /**
+     * Get the number of pixels repainted by the last call of
+     * {@link #repaintDirty(JComponent, int)}.
+     *
+     * @return the number of repainted pixels
+     */
+    public int getLastRepaintedCellCount() {
+        return lastRepaintedCellCount;
+    }
+
+    /**
+     * Get the pixels as list of columns, so that PIXELS[x][y] of older games
+     * reads and writes this buffer.
+     *
+     * @return the pixel columns, backed by this buffer
+     */
+    public List<List<Color>> getPixels() {
+        return pixelColumns;
+    }
+
+    /**
+     * Draws the whole buffer, every pixel as a square of the given size.
+     *
+     * @param g the graphics to draw on
+     * @param scalingFactor the size of a pixel on the screen
+     */
+    public void paint(Graphics g, int scalingFactor) {
+        g.drawImage(image, 0, 0, width * scalingFactor, height * scalingFactor, null);
+    }
+
+    /**
+     * Get a checksum of all pixels, e.g. to compare the frames of two runs.
+     *
+     * @return the CRC32 of the pixels
+     */
+    public synchronized long getChecksum() {
+        CRC32 crc = new CRC32();
+        byte[] row = new byte[width * 3];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[y * width + x];
+                row[x * 3] = (byte) (rgb >> 16);
+                row[x * 3 + 1] = (byte) (rgb >> 8);
+                row[x * 3 + 2] = (byte) rgb;
+            }
+            crc.update(row, 0, row.length);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the pixels as PNG, one pixel of the buffer as one pixel of the
+     * image.
+     *
+     * @param file the file to write
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void writePng(File file) throws IOException {
+        ImageIO.write(image, "png", file);
+    }
+
+    private void markAllDirty() {
+        Arrays.fill(dirtyTiles, true);
+        dirty = true;
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Pixel " + x + ", " + y + " outside of " + width + "x" + height);
+        }
+    }
+
+    private class PixelColumns extends AbstractList<List<Color>> {
+
+        @Override
+        public List<Color> get(int x) {
+            if (x < 0 || x >= width) {
+                throw new IndexOutOfBoundsException("Column " + x + " outside of " + width);
+            }
+            return new PixelColumn(x);
+        }
+
+        @Override
+        public List<Color> set(int x, List<Color> column) {
+            List<Color> old = new ArrayList<>(get(x));
+            for (int y = 0; y < height && y < column.size(); y++) {
+                setPixel(x, y, column.get(y));
+            }
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return width;
+        }
+    }
+
+    private class PixelColumn extends AbstractList<Color> {
+
+        private final int x;
+
+        PixelColumn(int x) {
+            this.x = x;
+        }
+
+        @Override
+        public Color get(int y) {
+            return getPixel(x, y);
+        }
+
+        @Override
+        public Color set(int y, Color color) {
+            Color old = getPixel(x, y);
+            setPixel(x, y, color);
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return height;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package game;
+
+import java.awt.Component;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * Game loop with a fixed timestep. The game logic runs on a dedicated thread,
+ * the rendering is handed off to the EDT at most once per frame, so slow
+ * painting does not delay the logic and slow logic does not block input.
+ *
+ * Offers start, stop, isRunning and setDelay like javax.swing.Timer, which
+ * drove the games before.
+ *
+ * With a virtual clock, e.g. for headless runs, the loop runs on the calling
+ * thread as fast as possible and every tick advances the clock by exactly
+ * one timestep, so that runs are reproducible.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class GameLoop {
+
+    /**
+     * What to do, if the logic falls behind the timestep.
+     */
+    public static enum SlowFramePolicy {
+        // run the missed ticks, up to MAX_CATCH_UP_TICKS per frame
+        CATCH_UP,
+        // drop the missed ticks, run only one tick per frame
+        SKIP
+    }
+
+    public static final int MAX_CATCH_UP_TICKS = 5;
+
+    private static final int FRAME_TIME_SAMPLES = 256;
+
+    private final Component component;
+    private final Runnable tickAction;
+    private final Runnable renderAction;
+    private final AtomicBoolean renderPending = new AtomicBoolean(false);
+    private final long[] frameTimes = new long[FRAME_TIME_SAMPLES];
+    private volatile long tickNanos;
+    private volatile SlowFramePolicy slowFramePolicy = SlowFramePolicy.CATCH_UP;
+    private volatile boolean running = false;
+    private volatile boolean virtualClock = false;
+    private long startNanos = System.nanoTime();
+    private Thread thread;
+    private int frameTimeCount = 0;
+    private volatile long tickCount = 0;
+    private volatile long skippedTickCount = 0;
+    private volatile int ticksPerSecond = 0;
+
+    /**
+     * Creates a new game loop.
+     *
+     * @param component the component showing the game, the loop stops as soon
+     * as it is not displayable any more, null if there is none
+     * @param delayMillis the timestep in milliseconds
+     * @param tickAction the game logic, called once per tick on the loop
+     * thread
+     * @param renderAction the rendering, called once per frame on the EDT
+     */
+    public GameLoop(Component component, int delayMillis, Runnable tickAction, Runnable renderAction) {
+        this.component = component;
+        this.tickAction = tickAction;
+        this.renderAction = renderAction;
+        setDelay(delayMillis);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (virtualClock) {
+            // runVirtual drives the ticks
+            return;
+        }
+        startNanos = System.nanoTime();
+        // a loop thread of an earlier start may still finish its tick, it ends as soon as it sees the new thread
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "JaPyGameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Sets the timestep.
+     *
+     * @param delayMillis the timestep in milliseconds, at least 1
+     */
+    public void setDelay(int delayMillis) {
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, delayMillis));
+    }
+
+    public int getDelay() {
+        return (int) TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    /**
+     * Switches to the virtual clock. The loop then does not start a thread,
+     * the ticks are run by {@link #runVirtual(long)}.
+     *
+     * @param virtualClock true for the virtual clock
+     */
+    public void setVirtualClock(boolean virtualClock) {
+        this.virtualClock = virtualClock;
+    }
+
+    /**
+     * Get the time of the game, so that games using it stay reproducible with
+     * the virtual clock.
+     *
+     * @return the ticks times the timestep with the virtual clock, otherwise
+     * the milliseconds since the last start
+     */
+    public long getTimeMillis() {
+        if (virtualClock) {
+            return tickCount * getDelay();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Runs the loop on the calling thread with the virtual clock, until the
+     * game stops or the given number of ticks is reached. Every tick is
+     * rendered right after it on the calling thread. Exceptions of the game
+     * are passed on.
+     *
+     * @param maxTicks the maximum number of ticks
+     */
+    public void runVirtual(long maxTicks) {
+        synchronized (this) {
+            virtualClock = true;
+            running = true;
+        }
+        try {
+            while (running && tickCount < maxTicks) {
+                long frameStart = System.nanoTime();
+                tickAction.run();
+                tickCount++;
+                renderAction.run();
+                recordFrameTime(System.nanoTime() - frameStart);
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    public void setSlowFramePolicy(SlowFramePolicy slowFramePolicy) {
+        this.slowFramePolicy = slowFramePolicy;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Get the number of ticks dropped, because the logic fell behind.
+     *
+     * @return the number of dropped ticks
+     */
+    public long getSkippedTickCount() {
+        return skippedTickCount;
+    }
+
+    /**
+     * Get the number of ticks run in the last full second.
+     *
+     * @return the measured ticks per second
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Get a percentile of the time the last frames took, logic and rendering
+     * together.
+     *
+     * @param percentile the percentile, e.g. 50, 95 or 99
+     * @return the frame time in milliseconds, 0 if no frame is done yet
+     */
+    public double getFrameTimePercentile(double percentile) {
+        long[] samples;
+        synchronized (frameTimes) {
+            samples = Arrays.copyOf(frameTimes, Math.min(frameTimeCount, FRAME_TIME_SAMPLES));
+        }
+        if (samples.length == 0) {
+            return 0;
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * samples.length) - 1;
+        return samples[Math.max(0, index)] / 1000000.0;
+    }
+
+    private void loop() {
+        long nextTick = System.nanoTime();
+        long secondStart = nextTick;
+        int ticksThisSecond = 0;
+        while (running && isLoopThread()) {
+            if (component != null && !component.isDisplayable()) {
+                running = false;
+                break;
+            }
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            long frameStart = now;
+            long behind = (now - nextTick) / tickNanos + 1;
+            long ticksToRun = slowFramePolicy == SlowFramePolicy.SKIP ? 1 : Math.min(behind, MAX_CATCH_UP_TICKS);
+            for (long i = 0; i < ticksToRun && running; i++) {
+                if (!tick()) {
+                    return;
+                }
+                ticksThisSecond++;
+            }
+            if (behind > ticksToRun) {
+                skippedTickCount += behind - ticksToRun;
+            }
+            nextTick += behind * tickNanos;
+            requestRender(System.nanoTime() - frameStart);
+
+            if (now - secondStart >= TimeUnit.SECONDS.toNanos(1)) {
+                ticksPerSecond = ticksThisSecond;
+                ticksThisSecond = 0;
+                secondStart = now;
+            }
+        }
+    }
+
+    private synchronized boolean isLoopThread() {
+        return thread == Thread.currentThread();
+    }
+
+    private boolean tick() {
+        try {
+            tickAction.run();
+            tickCount++;
+            return true;
+        } catch (Exception e) {
+            // the game is broken, stop instead of repeating the error every tick
+            running = false;
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void requestRender(long logicNanos) {
+        if (!renderPending.compareAndSet(false, true)) {
+            // the EDT did not paint the last frame yet, it paints the latest state anyway
+            recordFrameTime(logicNanos);
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                long renderStart = System.nanoTime();
+                try {
+                    renderAction.run();
+                } finally {
+                    renderPending.set(false);
+                    recordFrameTime(logicNanos + System.nanoTime() - renderStart);
+                }
+            }
+        });
+    }
+
+    private void recordFrameTime(long nanos) {
+        synchronized (frameTimes) {
+            frameTimes[frameTimeCount % FRAME_TIME_SAMPLES] = nanos;
+            frameTimeCount++;
+        }
+    }
+}
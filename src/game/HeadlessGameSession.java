@@ -0,0 +1,153 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless run of a JaPyGame, e.g. in the batch mode. Instead of showing a
+ * window the game renders into its frame buffer only and runs on a virtual
+ * clock as fast as possible, so that a run is reproducible: the same script
+ * gives the same frames. After every frame a checksum of the frame buffer is
+ * recorded and optionally a PNG is written.
+ *
+ * A session belongs to the thread running the script, the JaPyGame prelude
+ * picks it up with {@link #current()}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class HeadlessGameSession {
+
+    public static final int DEFAULT_TICKS = 1000;
+    public static final long DEFAULT_SEED = 0;
+
+    private static final ThreadLocal<HeadlessGameSession> currentSession = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxTicks;
+    private final File pngDirectory;
+    private final int pngInterval;
+    private final List<Long> checksums = new ArrayList<>();
+    private GameLoop gameLoop;
+    private long frameCount = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * Creates a new session.
+     *
+     * @param name the name of the run, used for the PNG file names
+     * @param maxTicks the number of ticks to run at most, the game may stop
+     * earlier
+     * @param pngDirectory the directory for frame PNGs, null for none
+     * @param pngInterval write every n-th frame as PNG
+     */
+    public HeadlessGameSession(String name, int maxTicks, File pngDirectory, int pngInterval) {
+        this.name = name;
+        this.maxTicks = maxTicks;
+        this.pngDirectory = pngDirectory;
+        this.pngInterval = Math.max(1, pngInterval);
+    }
+
+    /**
+     * Get the session of the calling thread.
+     *
+     * @return the session, null if the game should show a window
+     */
+    public static HeadlessGameSession current() {
+        return currentSession.get();
+    }
+
+    /**
+     * Makes a session the session of the calling thread.
+     *
+     * @param session the session, null to end the current one
+     */
+    public static void setCurrent(HeadlessGameSession session) {
+        if (session == null) {
+            currentSession.remove();
+        } else {
+            currentSession.set(session);
+        }
+    }
+
+    /**
+     * Runs the game started by the script of the calling thread, if there is a
+     * headless session and the script started one. Called after the script
+     * itself is done, so that it could initialize its game in any order.
+     */
+    public static void runPendingGame() {
+        HeadlessGameSession session = current();
+        if (session != null && session.gameLoop != null) {
+            GameLoop loop = session.gameLoop;
+            session.gameLoop = null;
+            long start = System.nanoTime();
+            try {
+                loop.runVirtual(session.maxTicks);
+            } finally {
+                session.elapsedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * Sets the game loop to run after the script, called by the prelude
+     * instead of starting the loop.
+     *
+     * @param gameLoop the game loop
+     */
+    public void setGameLoop(GameLoop gameLoop) {
+        this.gameLoop = gameLoop;
+    }
+
+    /**
+     * Records a rendered frame, called by the prelude after every tick.
+     *
+     * @param frameBuffer the frame
+     * @throws IOException if the PNG could not be written
+     */
+    public void frameRendered(FrameBuffer frameBuffer) throws IOException {
+        frameCount++;
+        checksums.add(frameBuffer.getChecksum());
+        if (pngDirectory != null && frameCount % pngInterval == 0) {
+            pngDirectory.mkdirs();
+            frameBuffer.writePng(new File(pngDirectory, String.format("%s-%06d.png", name, frameCount)));
+        }
+    }
+
+    public long getSeed() {
+        return DEFAULT_SEED;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Get the checksums of all frames.
+     *
+     * @return the checksums, the first frame first
+     */
+    public List<Long> getChecksums() {
+        return checksums;
+    }
+
+    /**
+     * Get the checksum of the last frame.
+     *
+     * @return the checksum, 0 if there was no frame
+     */
+    public long getFinalChecksum() {
+        return checksums.isEmpty() ? 0 : checksums.get(checksums.size() - 1);
+    }
+
+    /**
+     * Get the speed of the game, measured in wall clock time.
+     *
+     * @return the number of frames per second, 0 if there was no frame
+     */
+    public double getFramesPerSecond() {
+        return elapsedNanos == 0 ? 0 : frameCount * 1000000000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,211 @@
+package game;
+
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keyboard input of a JaPyGame. Key events are put into a lock-free queue on
+ * the EDT and taken out once per tick by the game loop, so no key press gets
+ * lost between two ticks and the game state is only changed by the loop
+ * thread. All methods except the listener methods are meant to be called by
+ * the game loop.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class KeyboardInput implements KeyListener, FocusListener {
+
+    public static final int MAX_HISTORY_SIZE = 256;
+
+    private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final Set<Integer> heldKeys = new HashSet<>();
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private List<Event> tickEvents = Collections.emptyList();
+    private long tick = 0;
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        queue.offer(new Event(Event.PRESSED, e.getKeyCode(), e.getKeyChar(), e.getWhen()));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        queue.offer(new Event(Event.RELEASED, e.getKeyCode(), e.getKeyChar(), e.getWhen()));
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+        queue.offer(new Event(Event.TYPED, e.getKeyCode(), e.getKeyChar(), e.getWhen()));
+    }
+
+    @Override
+    public void focusGained(FocusEvent e) {
+    }
+
+    @Override
+    public void focusLost(FocusEvent e) {
+        // the releases would go to another component, so the held keys are released on draining
+        queue.offer(new Event(Event.FOCUS_LOST, KeyEvent.VK_UNDEFINED, KeyEvent.CHAR_UNDEFINED, System.currentTimeMillis()));
+    }
+
+    /**
+     * Takes the events queued since the last call, updates the held keys and
+     * the history. Called once per tick by the game loop.
+     *
+     * @return the events of this tick in the order they happened
+     */
+    public List<Event> drain() {
+        tick++;
+        List<Event> events = new ArrayList<>();
+        Event event;
+        while ((event = queue.poll()) != null) {
+            if (event.getType() == Event.FOCUS_LOST) {
+                for (Integer keyCode : new ArrayList<>(heldKeys)) {
+                    addEvent(events, new Event(Event.RELEASED, keyCode, KeyEvent.CHAR_UNDEFINED, event.getWhen()));
+                }
+                continue;
+            }
+            addEvent(events, event);
+        }
+        tickEvents = Collections.unmodifiableList(events);
+        return tickEvents;
+    }
+
+    private void addEvent(List<Event> events, Event event) {
+        event.tick = tick;
+        if (event.getType() == Event.PRESSED) {
+            // holding a key repeats the press
+            event.repeat = !heldKeys.add(event.getKeyCode());
+        } else if (event.getType() == Event.RELEASED) {
+            heldKeys.remove(event.getKeyCode());
+        }
+        events.add(event);
+        history.addLast(event);
+        if (history.size() > MAX_HISTORY_SIZE) {
+            history.removeFirst();
+        }
+    }
+
+    public boolean isKeyDown(int keyCode) {
+        return heldKeys.contains(keyCode);
+    }
+
+    public List<Integer> getHeldKeys() {
+        return new ArrayList<>(heldKeys);
+    }
+
+    /**
+     * Get the events taken by the last call of {@link #drain()}.
+     *
+     * @return the events of the current tick
+     */
+    public List<Event> getEvents() {
+        return tickEvents;
+    }
+
+    /**
+     * Get the last events, at most {@link #MAX_HISTORY_SIZE}.
+     *
+     * @return the events, the oldest first
+     */
+    public List<Event> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * A key event as seen by the game.
+     */
+    public static class Event {
+
+        public static final int PRESSED = 0;
+        public static final int RELEASED = 1;
+        public static final int TYPED = 2;
+        static final int FOCUS_LOST = 3;
+
+        private final int type;
+        private final int keyCode;
+        private final char keyChar;
+        private final long when;
+        private long tick = 0;
+        private boolean repeat = false;
+
+        Event(int type, int keyCode, char keyChar, long when) {
+            this.type = type;
+            this.keyCode = keyCode;
+            this.keyChar = keyChar;
+            this.when = when;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public boolean isPressed() {
+            return type == PRESSED;
+        }
+
+        public boolean isReleased() {
+            return type == RELEASED;
+        }
+
+        public boolean isTyped() {
+            return type == TYPED;
+        }
+
+        /**
+         * Get the key code, e.g. KeyEvent.VK_UP. Typed events have no key
+         * code, only a key char.
+         *
+         * @return the key code
+         */
+        public int getKeyCode() {
+            return keyCode;
+        }
+
+        public char getKeyChar() {
+            return keyChar;
+        }
+
+        /**
+         * Get the time the event happened.
+         *
+         * @return the time in milliseconds since the epoch
+         */
+        public long getWhen() {
+            return when;
+        }
+
+        /**
+         * Get the tick the event was handed to the game in.
+         *
+         * @return the tick, starting at 1
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Check, if this press is repeated by holding the key.
+         *
+         * @return true if the key was already held
+         */
+        public boolean isRepeat() {
+            return repeat;
+        }
+
+        @Override
+        public String toString() {
+            String[] types = {"pressed", "released", "typed", "focusLost"};
+            return types[type] + " " + KeyEvent.getKeyText(keyCode) + " (tick " + tick + ")";
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package japy;
+
+import console.Log;
+import filehandling.FileHandlingUtil;
+import game.HeadlessGameSession;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import model.Project;
+import model.ProjectJsonConverter;
+import org.json.simple.JSONValue;
+import preferences.Preferences;
+import python.IPythonCallback;
+import python.PythonExecution;
+import python.PythonInterpreterPool;
+
+/**
+ * Headless batch mode. Runs every tab of every .japy project in a directory
+ * on a work stealing pool and writes the results as JSON report, e.g. to grade
+ * the projects of a whole class.
+ *
+ * JaPyGames run headless on a virtual clock for a fixed number of ticks, the
+ * checksum of their last frame is reported, optionally the checksums of all
+ * frames and PNGs of every n-th frame.
+ *
+ * All projects share one heap, unless --max-heap is given. Then every project
+ * runs in a JVM of its own with this maximum heap, so that a project running
+ * out of memory does not affect the others.
+ *
+ * Usage: --batch &lt;directory&gt; [--report &lt;file&gt;] [--timeout &lt;seconds&gt;]
+ * [--allocation-budget &lt;megabytes&gt;] [--max-heap &lt;megabytes&gt;] [--threads
+ * &lt;count&gt;] [--game-ticks &lt;count&gt;] [--frame-checksums] [--frames-dir
+ * &lt;directory&gt;] [--frame-interval &lt;count&gt;]
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class BatchRunner {
+
+    public static final String BATCH_ARGUMENT = "--batch";
+
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURES = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String REPORT_FILE_NAME = "japy-batch-report.json";
+    private static final String PROJECT_FILE_EXTENSION = ".japy";
+    private static final int MAX_CAPTURED_CHARS = 100000;
+    // start up of a project JVM, on top of the timeouts of its tabs
+    private static final int PROJECT_JVM_START_SECONDS = 60;
+    // share of the heap still in use after a garbage collection at which the heap counts as exhausted
+    private static final double HEAP_EXHAUSTED_RATIO = 0.9;
+
+    private static final String STATUS_OK = "ok";
+    private static final String STATUS_ERROR = "error";
+    private static final String STATUS_LIMIT = "limitExceeded";
+    private static final String STATUS_MEMORY = "memoryExceeded";
+    private static final String STATUS_INVALID = "invalid";
+
+    private File directory;
+    private File reportFile;
+    private int timeoutSeconds = 10;
+    private int allocationBudgetMegabytes = 0;
+    private int maxHeapMegabytes = 0;
+    // only this project of the directory, set for the JVMs of --max-heap
+    private String projectName;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int gameTicks = HeadlessGameSession.DEFAULT_TICKS;
+    private boolean allFrameChecksums = false;
+    private File framesDirectory;
+    private int frameInterval = 1;
+
+    private BatchRunner() {
+        // use run(String[])
+    }
+
+    /**
+     * Checks if the command line arguments request the batch mode.
+     *
+     * @param args command line arguments
+     * @return true, if the batch mode is requested
+     */
+    public static boolean isBatchMode(String[] args) {
+        return Arrays.asList(args).contains(BATCH_ARGUMENT);
+    }
+
+    /**
+     * Runs the batch mode.
+     *
+     * @param args command line arguments
+     * @return the exit code, {@link #EXIT_SUCCESS} if all tabs of all projects
+     * ran without errors
+     */
+    public static int run(String[] args) {
+        BatchRunner batchRunner = new BatchRunner();
+        if (!batchRunner.parseArguments(args)) {
+            Log.error(BatchRunner.class, "Usage: " + BATCH_ARGUMENT + " <directory> [--report <file>] [--timeout <seconds>] [--allocation-budget <megabytes>] [--max-heap <megabytes>] [--threads <count>]"
+                    + " [--game-ticks <count>] [--frame-checksums] [--frames-dir <directory>] [--frame-interval <count>]");
+            return EXIT_USAGE;
+        }
+        return batchRunner.runProjects();
+    }
+
+    private boolean parseArguments(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case BATCH_ARGUMENT:
+                        directory = new File(args[++i]);
+                        break;
+                    case "--report":
+                        reportFile = new File(args[++i]);
+                        break;
+                    case "--timeout":
+                        timeoutSeconds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--allocation-budget":
+                        allocationBudgetMegabytes = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-heap":
+                        maxHeapMegabytes = Integer.parseInt(args[++i]);
+                        break;
+                    case "--project":
+                        projectName = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--game-ticks":
+                        gameTicks = Math.max(0, Integer.parseInt(args[++i]));
+                        break;
+                    case "--frame-checksums":
+                        allFrameChecksums = true;
+                        break;
+                    case "--frames-dir":
+                        framesDirectory = new File(args[++i]);
+                        break;
+                    case "--frame-interval":
+                        frameInterval = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        Log.error(BatchRunner.class, "Unknown argument " + args[i]);
+                        return false;
+                }
+            }
+        } catch (Exception e) {
+            Log.error(BatchRunner.class, "Invalid arguments: " + e.getMessage());
+            return false;
+        }
+        if (directory == null || !directory.isDirectory()) {
+            Log.error(BatchRunner.class, "Not a directory: " + directory);
+            return false;
+        }
+        if (reportFile == null) {
+            reportFile = new File(directory, REPORT_FILE_NAME);
+        }
+        return true;
+    }
+
+    private int runProjects() {
+        long start = System.currentTimeMillis();
+        File[] projectFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(PROJECT_FILE_EXTENSION) && (projectName == null || projectName.equals(name));
+            }
+        });
+        if (projectFiles == null) {
+            projectFiles = new File[0];
+        }
+        Arrays.sort(projectFiles);
+
+        if (maxHeapMegabytes <= 0) {
+            // every worker keeps its interpreter, no interpreter is created twice
+            Preferences.getInstance().interpreterPoolSize = threads;
+            PythonInterpreterPool.initializeRuntime();
+            watchHeapExhaustion();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Map<String, Object>> projectResults = new ArrayList<>();
+        // a task runs one tab, or all tabs of a project in a JVM of its own
+        List<List<ForkJoinTask<List<Map<String, Object>>>>> tabTasks = new ArrayList<>();
+        for (File projectFile : projectFiles) {
+            Map<String, Object> projectResult = new LinkedHashMap<>();
+            projectResult.put("file", projectFile.getName());
+            projectResults.add(projectResult);
+            List<ForkJoinTask<List<Map<String, Object>>>> tasks = new ArrayList<>();
+            tabTasks.add(tasks);
+            Project project = ProjectJsonConverter.getInstance().readProject(projectFile);
+            if (project == null) {
+                projectResult.put("status", STATUS_INVALID);
+                continue;
+            }
+            List<String> titles = new ArrayList<>();
+            for (int i = 0; i < project.getFiles().size(); i++) {
+                titles.add(i < project.getTitles().size() ? project.getTitles().get(i) : String.valueOf(i));
+            }
+            if (maxHeapMegabytes > 0) {
+                tasks.add(pool.submit(new Callable<List<Map<String, Object>>>() {
+                    @Override
+                    public List<Map<String, Object>> call() {
+                        return runProjectJvm(projectFile, titles);
+                    }
+                }));
+                continue;
+            }
+            for (int i = 0; i < project.getFiles().size(); i++) {
+                String title = titles.get(i);
+                String pythonString = project.getFiles().get(i);
+                String runName = projectFile.getName().substring(0, projectFile.getName().length() - PROJECT_FILE_EXTENSION.length()) + "-" + i;
+                tasks.add(pool.submit(new Callable<List<Map<String, Object>>>() {
+                    @Override
+                    public List<Map<String, Object>> call() {
+                        return Collections.singletonList(runTab(runName, title, pythonString));
+                    }
+                }));
+            }
+        }
+
+        int failures = 0;
+        List<Object> projectsJSONArray = new ArrayList<>();
+        for (int i = 0; i < projectResults.size(); i++) {
+            Map<String, Object> projectResult = projectResults.get(i);
+            if (STATUS_INVALID.equals(projectResult.get("status"))) {
+                failures++;
+                projectsJSONArray.add(projectResult);
+                continue;
+            }
+            String projectStatus = STATUS_OK;
+            List<Object> tabsJSONArray = new ArrayList<>();
+            for (ForkJoinTask<List<Map<String, Object>>> task : tabTasks.get(i)) {
+                for (Map<String, Object> tabResult : task.join()) {
+                    if (!STATUS_OK.equals(tabResult.get("status"))) {
+                        projectStatus = STATUS_ERROR;
+                    }
+                    tabsJSONArray.add(tabResult);
+                }
+            }
+            if (!STATUS_OK.equals(projectStatus)) {
+                failures++;
+            }
+            projectResult.put("status", projectStatus);
+            projectResult.put("tabs", tabsJSONArray);
+            projectsJSONArray.add(projectResult);
+        }
+        pool.shutdown();
+
+        long durationMillis = System.currentTimeMillis() - start;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jaPyVersion", JaPy.VERSION);
+        report.put("directory", directory.getAbsolutePath());
+        report.put("durationMillis", durationMillis);
+        report.put("threads", threads);
+        report.put("timeoutSeconds", timeoutSeconds);
+        report.put("allocationBudgetMegabytes", allocationBudgetMegabytes);
+        report.put("maxHeapMegabytes", maxHeapMegabytes);
+        report.put("gameTicks", gameTicks);
+        report.put("projectCount", projectFiles.length);
+        report.put("failedProjectCount", failures);
+        report.put("projects", projectsJSONArray);
+        FileHandlingUtil.getInstance().writeStringToFile(reportFile.getAbsolutePath(), JSONValue.toJSONString(report));
+
+        Log.info(BatchRunner.class, "Ran " + projectFiles.length + " projects in " + durationMillis + " ms, " + failures + " failed. Report written to " + reportFile.getAbsolutePath());
+        return failures == 0 ? EXIT_SUCCESS : EXIT_FAILURES;
+    }
+
+    private Map<String, Object> runTab(String runName, String title, String pythonString) {
+        Capture stdout = new Capture();
+        Capture stderr = new Capture();
+        CapturingCallback callback = new CapturingCallback(stdout);
+        PythonExecution execution = new PythonExecution(pythonString, callback, timeoutSeconds * 1000L, 0, allocationBudgetMegabytes * 1024L * 1024L);
+        execution.setErrorWriter(stderr);
+        execution.setSourceName(title);
+        HeadlessGameSession gameSession = new HeadlessGameSession(runName, gameTicks, framesDirectory, frameInterval);
+        HeadlessGameSession.setCurrent(gameSession);
+        long start = System.currentTimeMillis();
+        long heapExhaustedCount = getHeapExhaustedCount();
+        Throwable failure = null;
+        try {
+            execution.run();
+        } catch (Throwable t) {
+            // e.g. an OutOfMemoryError, it must not stop the runs of the other tabs
+            failure = t;
+        } finally {
+            HeadlessGameSession.setCurrent(null);
+        }
+        long durationMillis = System.currentTimeMillis() - start;
+
+        Map<String, Object> tabResult = new LinkedHashMap<>();
+        tabResult.put("title", title);
+        tabResult.put("durationMillis", durationMillis);
+        boolean heapExhausted = getHeapExhaustedCount() > heapExhaustedCount;
+        if (failure instanceof OutOfMemoryError || (callback.error != null && (heapExhausted || callback.error.contains("MemoryError")))) {
+            tabResult.put("status", STATUS_MEMORY);
+            tabResult.put("error", failure != null ? failure.toString() : callback.error);
+        } else if (failure != null) {
+            tabResult.put("status", STATUS_ERROR);
+            tabResult.put("error", failure.toString());
+        } else if (execution.getExceededLimit() != null) {
+            tabResult.put("status", STATUS_LIMIT);
+            tabResult.put("error", execution.getExceededLimit());
+        } else if (callback.error != null) {
+            tabResult.put("status", STATUS_ERROR);
+            tabResult.put("error", callback.error);
+        } else {
+            tabResult.put("status", STATUS_OK);
+        }
+        if (gameSession.getFrameCount() > 0) {
+            tabResult.put("game", gameToJSONObject(gameSession));
+        }
+        tabResult.put("stdout", stdout.toString());
+        tabResult.put("stderr", stderr.toString());
+        return tabResult;
+    }
+
+    /**
+     * Sets the thresholds for {@link #getHeapExhaustedCount()}.
+     */
+    private static void watchHeapExhaustion() {
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = memoryPool.getUsage().getMax();
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.isCollectionUsageThresholdSupported() && max > 0) {
+                memoryPool.setCollectionUsageThreshold((long) (max * HEAP_EXHAUSTED_RATIO));
+            }
+        }
+    }
+
+    /**
+     * Counts how often the heap was still nearly full after a garbage
+     * collection. Jython reports an OutOfMemoryError of a script as some
+     * Python error, e.g. an IndexError of its warnings module, so a run that
+     * failed while the count grew ran out of memory. With a shared heap the
+     * count may also grow because of another run.
+     *
+     * @return the count
+     */
+    private static long getHeapExhaustedCount() {
+        long count = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.isCollectionUsageThresholdSupported()) {
+                count += memoryPool.getCollectionUsageThresholdCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs all tabs of a project in a JVM of its own with the maximum heap of
+     * --max-heap. The JVM runs the batch mode for the project only and writes
+     * its report to a temporary file.
+     *
+     * @param projectFile the project
+     * @param titles the titles of the tabs
+     * @return the results of the tabs
+     */
+    private List<Map<String, Object>> runProjectJvm(File projectFile, List<String> titles) {
+        File projectReport = null;
+        String error;
+        try {
+            projectReport = Files.createTempFile("japy-batch", ".json").toFile();
+            List<String> command = new ArrayList<>(Arrays.asList(
+                    new File(System.getProperty("java.home"), "bin" + File.separator + "java").getAbsolutePath(),
+                    "-Xmx" + maxHeapMegabytes + "m",
+                    "-cp", System.getProperty("java.class.path"),
+                    JaPy.class.getName(),
+                    BATCH_ARGUMENT, directory.getAbsolutePath(),
+                    "--project", projectFile.getName(),
+                    "--report", projectReport.getAbsolutePath(),
+                    "--timeout", String.valueOf(timeoutSeconds),
+                    "--allocation-budget", String.valueOf(allocationBudgetMegabytes),
+                    "--threads", "1",
+                    "--game-ticks", String.valueOf(gameTicks),
+                    "--frame-interval", String.valueOf(frameInterval)));
+            if (allFrameChecksums) {
+                command.add("--frame-checksums");
+            }
+            if (framesDirectory != null) {
+                command.addAll(Arrays.asList("--frames-dir", framesDirectory.getAbsolutePath()));
+            }
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            boolean exited;
+            if (timeoutSeconds > 0) {
+                exited = process.waitFor(timeoutSeconds * (titles.size() + 1L) + PROJECT_JVM_START_SECONDS, TimeUnit.SECONDS);
+            } else {
+                process.waitFor();
+                exited = true;
+            }
+            if (!exited) {
+                process.destroyForcibly();
+                error = "JVM of the project did not exit in time";
+            } else {
+                List<Map<String, Object>> tabResults = readProjectJvmReport(projectReport);
+                if (tabResults != null) {
+                    return tabResults;
+                }
+                error = "JVM of the project exited with code " + process.exitValue() + " without a report";
+            }
+        } catch (IOException e) {
+            error = "Could not start JVM of the project: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } finally {
+            if (projectReport != null) {
+                projectReport.delete();
+            }
+        }
+        Log.error(BatchRunner.class, projectFile.getName() + ": " + error);
+        List<Map<String, Object>> tabResults = new ArrayList<>();
+        for (String title : titles) {
+            Map<String, Object> tabResult = new LinkedHashMap<>();
+            tabResult.put("title", title);
+            tabResult.put("status", STATUS_ERROR);
+            tabResult.put("error", error);
+            tabResults.add(tabResult);
+        }
+        return tabResults;
+    }
+
+    /**
+     * Reads the tab results of the only project of a report written by a
+     * project JVM.
+     *
+     * @param projectReport the report
+     * @return the results of the tabs, null if the report is missing or
+     * incomplete
+     */
+    private List<Map<String, Object>> readProjectJvmReport(File projectReport) {
+        if (projectReport.length() == 0) {
+            return null;
+        }
+        Object report = JSONValue.parse(FileHandlingUtil.getInstance().readFileAsString(projectReport.getAbsolutePath()));
+        if (!(report instanceof Map)) {
+            return null;
+        }
+        Object projects = ((Map<?, ?>) report).get("projects");
+        if (!(projects instanceof List) || ((List<?>) projects).size() != 1 || !(((List<?>) projects).get(0) instanceof Map)) {
+            return null;
+        }
+        Object tabs = ((Map<?, ?>) ((List<?>) projects).get(0)).get("tabs");
+        if (!(tabs instanceof List)) {
+            return null;
+        }
+        List<Map<String, Object>> tabResults = new ArrayList<>();
+        for (Object tab : (List<?>) tabs) {
+            if (!(tab instanceof Map)) {
+                return null;
+            }
+            Map<String, Object> tabResult = new LinkedHashMap<>();
+            // the keys in the order runTab writes them, the parsed object has no order
+            for (String key : Arrays.asList("title", "durationMillis", "status", "error", "game", "stdout", "stderr")) {
+                Object value = ((Map<?, ?>) tab).get(key);
+                if (value != null) {
+                    tabResult.put(key, value);
+                }
+            }
+            tabResults.add(tabResult);
+        }
+        return tabResults;
+    }
+
+    private Map<String, Object> gameToJSONObject(HeadlessGameSession gameSession) {
+        Map<String, Object> gameJSONObject = new LinkedHashMap<>();
+        gameJSONObject.put("frames", gameSession.getFrameCount());
+        gameJSONObject.put("framesPerSecond", Math.round(gameSession.getFramesPerSecond()));
+        gameJSONObject.put("finalChecksum", Long.toHexString(gameSession.getFinalChecksum()));
+        if (allFrameChecksums) {
+            List<Object> checksumsJSONArray = new ArrayList<>();
+            for (long checksum : gameSession.getChecksums()) {
+                checksumsJSONArray.add(Long.toHexString(checksum));
+            }
+            gameJSONObject.put("checksums", checksumsJSONArray);
+        }
+        return gameJSONObject;
+    }
+
+    /**
+     * Collects output up to a maximum length, so that a script printing in an
+     * endless loop can not use up the memory until its timeout.
+     */
+    private static class Capture extends Writer {
+
+        private final StringBuilder sb = new StringBuilder();
+        private boolean truncated = false;
+
+        @Override
+        public synchronized void write(char[] cbuf, int off, int len) {
+            append(new String(cbuf, off, len));
+        }
+
+        synchronized void append(String s) {
+            int free = MAX_CAPTURED_CHARS - sb.length();
+            if (s.length() > free) {
+                sb.append(s, 0, Math.max(0, free));
+                truncated = true;
+            } else {
+                sb.append(s);
+            }
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        @Override
+        public synchronized String toString() {
+            return truncated ? sb.toString() + "\n[output truncated]" : sb.toString();
+        }
+    }
+
+    private static class CapturingCallback implements IPythonCallback {
+
+        private final Capture stdout;
+        private volatile String error;
+
+        CapturingCallback(Capture stdout) {
+            this.stdout = stdout;
+        }
+
+        @Override
+        public void interpreterOutputAppended(String chunk) {
+            stdout.append(chunk);
+        }
+
+        @Override
+        public void alreadyRunning() {
+            // not scheduled, run directly
+        }
+
+        @Override
+        public void executionQueued() {
+            // not scheduled, run directly
+        }
+
+        @Override
+        public void executionStarted() {
+            // nothing to do
+        }
+
+        @Override
+        public void syntaxError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public void pythonRuntimeError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public void executionCancelled() {
+            this.error = "Execution cancelled!";
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package japy;
 
+import benchmark.BenchmarkSuite;
 import console.Log;
 import control.Control;
 import java.util.Base64;
 import javax.swing.UIManager;
 import preferences.Preferences;
+import python.PythonInterpreterPool;
 import test.TestSuite;
 import view.util.LoadingAnimation;
 import view.util.SplashScreenUtil;
@@ -33,6 +35,18 @@ public class JaPy {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        // headless batch mode, e.g. for grading, no user interface at all
+        if (BatchRunner.isBatchMode(args)) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchRunner.run(args));
+        }
+
+        // benchmarks of the performance critical parts, no user interface either
+        if (BenchmarkSuite.isBenchmarkMode(args)) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BenchmarkSuite.run(args));
+        }
+
         // determine operating system
         OS = getOperatingSystem();
 
@@ -43,6 +57,9 @@ public class JaPy {
         SplashScreenUtil.showSplashScreen("JaPyLogo.png");
         LoadingAnimation.showLoadingAnim();
 
+        // warm up the Python runtime in the background while the splash screen is visible
+        PythonInterpreterPool.getInstance().prewarm();
+
         // run unit tests, but only if in debug mode
         if (IS_DEBUG) {
             if (!TestSuite.startTests()) {
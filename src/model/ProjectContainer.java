@@ -0,0 +1,254 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compressed container format for projects, a zip file with
+ * <ul>
+ * <li>the uncompressed entry {@link #VERSION_ENTRY} first, holding the format
+ * version,</li>
+ * <li>the entry {@link #MANIFEST_ENTRY}, a project in JSON whose files are the
+ * names of the tab entries,</li>
+ * <li>one entry per tab, deflated unless the tab is small.</li>
+ * </ul>
+ * Every tab is compressed on its own, so a single tab can be read without the
+ * others.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectContainer {
+
+    public static final String VERSION_ENTRY = "japy-container";
+    public static final String MANIFEST_ENTRY = "project.json";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String TAB_ENTRY_PREFIX = "tabs/";
+    private static final String TAB_ENTRY_SUFFIX = ".py";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // smaller tabs are stored, compressing them saves little and costs time
+    private static final int MIN_COMPRESSED_BYTES = 1024;
+    // local file header signature of zip files
+    private static final byte[] MAGIC = {'P', 'K', 3, 4};
+
+    private ProjectContainer() {
+        // static methods only
+    }
+
+    /**
+     * Checks if a file is a project container, by its first bytes.
+     *
+     * @param file the file
+     * @return true for a container, false for JSON or anything else
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isContainer(File file) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        int read = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while (read < head.length && (n = in.read(head, read, head.length - read)) > 0) {
+                read += n;
+            }
+        }
+        if (read < head.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a project as container.
+     *
+     * @param project the project
+     * @param out the stream, flushed but not closed, so that a file can be
+     * forced to disk afterwards
+     * @throws IOException if the stream fails
+     */
+    public static void write(Project project, OutputStream out) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out))) {
+            writeStoredEntry(zip, VERSION_ENTRY, String.valueOf(FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+
+            List<String> entryNames = new ArrayList<>();
+            for (int i = 0; i < project.getFiles().size(); i++) {
+                entryNames.add(TAB_ENTRY_PREFIX + i + TAB_ENTRY_SUFFIX);
+            }
+            zip.setMethod(ZipOutputStream.DEFLATED);
+            // most of the size is saved already at the fastest level
+            zip.setLevel(Deflater.BEST_SPEED);
+            zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+            Writer manifestWriter = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            new ProjectJsonWriter(manifestWriter).writeProject(new Project(project.getTitles(), entryNames, project.getJaPyVersion(), project.getModificationDate()));
+            zip.closeEntry();
+
+            for (int i = 0; i < entryNames.size(); i++) {
+                String content = project.getFiles().get(i);
+                // a null tab is an empty tab, like in the editor
+                byte[] bytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                if (bytes.length < MIN_COMPRESSED_BYTES) {
+                    writeStoredEntry(zip, entryNames.get(i), bytes);
+                } else {
+                    zip.putNextEntry(new ZipEntry(entryNames.get(i)));
+                    zip.write(bytes);
+                    zip.closeEntry();
+                }
+            }
+        }
+    }
+
+    private static void writeStoredEntry(ZipOutputStream zip, String entryName, byte[] bytes) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    /**
+     * Reads a whole project from a container.
+     *
+     * @param file the container file
+     * @return the project
+     * @throws IOException if the file could not be read or is no valid
+     * container
+     */
+    public static Project read(File file) throws IOException {
+        try (ZipFile zip = new ZipFile(file, StandardCharsets.UTF_8)) {
+            Project manifest = readManifest(zip);
+            List<String> files = new ArrayList<>();
+            for (String entryName : manifest.getFiles()) {
+                files.add(readEntry(zip, entryName));
+            }
+            return new Project(manifest.getTitles(), files, manifest.getJaPyVersion(), manifest.getModificationDate());
+        }
+    }
+
+    /**
+     * Reads the index of a container, only the manifest is read.
+     *
+     * @param file the container file
+     * @return the index
+     * @throws IOException if the file could not be read or is no valid
+     * container
+     */
+    static ProjectIndex readIndex(File file) throws IOException {
+        long lastModified = file.lastModified();
+        long fileLength = file.length();
+        try (ZipFile zip = new ZipFile(file, StandardCharsets.UTF_8)) {
+            Project manifest = readManifest(zip);
+            if (manifest.getTitles().size() != manifest.getFiles().size()) {
+                throw new IOException("Titles and files do not match");
+            }
+            return new ProjectIndex(file, fileLength, lastModified, manifest.getTitles(), manifest.getFiles(), manifest.getJaPyVersion(), manifest.getModificationDate());
+        }
+    }
+
+    /**
+     * Reads a single tab of a container.
+     *
+     * @param file the container file
+     * @param entryName the name of the tab entry
+     * @return the content of the tab
+     * @throws IOException if the file could not be read
+     */
+    static String readTab(File file, String entryName) throws IOException {
+        try (ZipFile zip = new ZipFile(file, StandardCharsets.UTF_8)) {
+            return readEntry(zip, entryName);
+        }
+    }
+
+    private static Project readManifest(ZipFile zip) throws IOException {
+        String version = readEntry(zip, VERSION_ENTRY).trim();
+        try {
+            if (Integer.parseInt(version) > FORMAT_VERSION) {
+                throw new IOException("Container format " + version + " is newer than this JaPy supports");
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid container format " + version);
+        }
+        ZipEntry manifestEntry = zip.getEntry(MANIFEST_ENTRY);
+        if (manifestEntry == null) {
+            throw new IOException("Missing " + MANIFEST_ENTRY);
+        }
+        try (InputStream in = zip.getInputStream(manifestEntry)) {
+            return new ProjectJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)).readProject();
+        }
+    }
+
+    private static String readEntry(ZipFile zip, String entryName) throws IOException {
+        ZipEntry entry = entryName == null ? null : zip.getEntry(entryName);
+        if (entry == null) {
+            throw new IOException("Missing entry " + entryName);
+        }
+        long size = entry.getSize();
+        try (InputStream in = zip.getInputStream(entry)) {
+            if (size >= 0 && size < Integer.MAX_VALUE) {
+                // the size is known for entries written by JaPy, read into a single array
+                byte[] bytes = new byte[(int) size];
+                int read = 0;
+                int n;
+                while (read < bytes.length && (n = in.read(bytes, read, bytes.length - read)) > 0) {
+                    read += n;
+                }
+                if (read < bytes.length) {
+                    throw new IOException("Entry " + entryName + " is truncated");
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+
+    /**
+     * Flushes instead of closing the stream, closing the zip stream still
+     * releases its deflater.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
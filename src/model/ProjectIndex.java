@@ -0,0 +1,155 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Index of a project file. Holds the titles and where every tab content is
+ * stored, the byte offset in JSON files or the entry name in containers, so
+ * that a tab is read from the file only when it is needed.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectIndex {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final long fileLength;
+    private final long lastModified;
+    private final List<String> titles;
+    // set for JSON files
+    private final long[] fileOffsets;
+    // set for containers
+    private final List<String> entryNames;
+    private final String jaPyVersion;
+    private final Date modificationDate;
+
+    ProjectIndex(File file, long fileLength, long lastModified, List<String> titles, long[] fileOffsets, String jaPyVersion, Date modificationDate) {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.titles = Collections.unmodifiableList(titles);
+        this.fileOffsets = fileOffsets;
+        this.entryNames = null;
+        this.jaPyVersion = jaPyVersion;
+        this.modificationDate = modificationDate;
+    }
+
+    ProjectIndex(File file, long fileLength, long lastModified, List<String> titles, List<String> entryNames, String jaPyVersion, Date modificationDate) {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.titles = Collections.unmodifiableList(titles);
+        this.fileOffsets = null;
+        this.entryNames = entryNames;
+        this.jaPyVersion = jaPyVersion;
+        this.modificationDate = modificationDate;
+    }
+
+    /**
+     * Reads the index of a project file, JSON or container. Only the titles
+     * are decoded, the tab contents are skipped.
+     *
+     * @param file the project file
+     * @return the index
+     * @throws IOException if the file could not be read or is no valid project
+     */
+    public static ProjectIndex read(File file) throws IOException {
+        if (ProjectContainer.isContainer(file)) {
+            return ProjectContainer.readIndex(file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long lastModified = file.lastModified();
+            long fileLength = channel.size();
+            ProjectJsonReader reader = new ProjectJsonReader(Channels.newReader(channel, StandardCharsets.ISO_8859_1.newDecoder(), BUFFER_SIZE));
+            return reader.readIndex(file, fileLength, lastModified);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public List<String> getTitles() {
+        return titles;
+    }
+
+    public int getTabCount() {
+        return fileOffsets != null ? fileOffsets.length : entryNames.size();
+    }
+
+    public String getJaPyVersion() {
+        return jaPyVersion;
+    }
+
+    public Date getModificationDate() {
+        return modificationDate;
+    }
+
+    long getFileLength() {
+        return fileLength;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Checks if the file is still the one the index was read from.
+     *
+     * @return true if the file was not changed since
+     */
+    public boolean isValid() {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    /**
+     * Reads the content of a tab from the file.
+     *
+     * @param index the index of the tab
+     * @return the content, may be null if the file says so
+     * @throws IOException if the file could not be read or was changed since
+     * the index was read
+     */
+    public String readFile(int index) throws IOException {
+        if (!isValid()) {
+            throw new IOException("Project file " + file + " was changed by another program");
+        }
+        if (entryNames != null) {
+            return ProjectContainer.readTab(file, entryNames.get(index));
+        }
+        long fileOffset = fileOffsets[index];
+        if (fileOffset < 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel.position(fileOffset);
+            int bufferSize = (int) Math.min(BUFFER_SIZE, getByteLength(index));
+            ProjectJsonReader reader = new ProjectJsonReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), bufferSize), bufferSize);
+            return reader.readStringValue();
+        }
+    }
+
+    /**
+     * Get an upper bound of the bytes of a tab content in the file.
+     */
+    private long getByteLength(int index) {
+        long end = fileLength;
+        for (int i = index + 1; i < fileOffsets.length; i++) {
+            if (fileOffsets[i] >= 0) {
+                end = fileOffsets[i];
+                break;
+            }
+        }
+        return end - fileOffsets[index];
+    }
+}
@@ -0,0 +1,674 @@
+package model;
+
+import console.Log;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append only journal of the edits of a project, stored next to the project
+ * file. The edits are appended as small records and forced to disk in
+ * batches, so that the project file does not have to be rewritten for every
+ * change. The journal is compacted by writing the whole project in the
+ * background, and replayed on the project file if JaPy did not exit cleanly.
+ * All saves of the project go through the journal, so that they are ordered
+ * with the records, and a save that did not start yet is replaced by a newer
+ * one instead of writing the project twice.
+ * <p>
+ * The journal starts with a header naming the length and modification time
+ * of the project file it applies to, followed by records of the form length,
+ * payload, CRC32 of the payload. A record that was written only partially
+ * ends the journal.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectJournal {
+
+    public static final String FILE_SUFFIX = ".journal";
+
+    private static final long MAGIC = 0x4a61507947524e4cL;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8 + 4 + 8 + 8;
+    // edits are forced to disk at most this often
+    private static final int FSYNC_DELAY_MILLIS = 100;
+    // the length and the checksum around the payload of a record
+    private static final int RECORD_FRAME_BYTES = 4 + 4;
+
+    private static final byte RECORD_INSERT = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final byte RECORD_ADD_TAB = 3;
+    private static final byte RECORD_CLOSE_TAB = 4;
+
+    // all journal I/O and saves run on this thread, in order
+    private static final ScheduledExecutorService ioExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "JaPyJournal");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final File projectFile;
+    private final File journalFile;
+    // null if the journal could not be created, only saves are done then
+    private final FileChannel channel;
+    // records and compactions that are not processed yet, in order
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private boolean drainScheduled = false;
+    // bytes of records since the last compaction was requested
+    private long recordBytes = 0;
+    private int pendingCompactions = 0;
+    private boolean writeFailed = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Called on the journal thread when a compaction is done.
+     */
+    public interface ICompactionCallback {
+
+        /**
+         * Called when the project was written.
+         *
+         * @param index the index of the written project file
+         * @param project the project that was written, a newer one if the
+         * compaction was replaced by a later one
+         */
+        void compacted(ProjectIndex index, Project project);
+
+        void failed();
+    }
+
+    private ProjectJournal(File projectFile, FileChannel channel) {
+        this.projectFile = projectFile.getAbsoluteFile();
+        this.journalFile = getJournalFile(projectFile);
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a new journal for a project file, an existing journal is
+     * replaced, so check {@link #hasChanges(File)} first. If the journal can
+     * not be created, the edits are not journaled but the project is still
+     * saved through it.
+     *
+     * @param projectFile the project file, may not exist yet
+     * @return the journal
+     */
+    public static ProjectJournal open(File projectFile) {
+        File journalFile = getJournalFile(projectFile);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader(channel, projectFile.length(), projectFile.lastModified());
+        } catch (IOException e) {
+            Log.error(ProjectJournal.class, "Could not create journal " + journalFile + ", edits are only saved with the project: " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    // the journal is not used anyway
+                }
+                channel = null;
+            }
+        }
+        return new ProjectJournal(projectFile, channel);
+    }
+
+    public static File getJournalFile(File projectFile) {
+        return new File(projectFile.getAbsoluteFile().getParentFile(), projectFile.getName() + FILE_SUFFIX);
+    }
+
+    public File getProjectFile() {
+        return projectFile;
+    }
+
+    public void insert(int tab, int offset, String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + text.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(RECORD_INSERT);
+            out.writeInt(tab);
+            out.writeInt(offset);
+            writeString(out, text);
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+        }
+        append(bytes.toByteArray());
+    }
+
+    public void remove(int tab, int offset, int length) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(RECORD_REMOVE);
+            out.writeInt(tab);
+            out.writeInt(offset);
+            out.writeInt(length);
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+        }
+        append(bytes.toByteArray());
+    }
+
+    public void addTab(int tab, String title, String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + title.length() + content.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(RECORD_ADD_TAB);
+            out.writeInt(tab);
+            writeString(out, title);
+            writeString(out, content);
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+        }
+        append(bytes.toByteArray());
+    }
+
+    public void closeTab(int tab) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(RECORD_CLOSE_TAB);
+            out.writeInt(tab);
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+        }
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Checks if the journal should be compacted.
+     *
+     * @param maxBytes the size of the records above which it should
+     * @return true if it is larger and no compaction is pending
+     */
+    public synchronized boolean needsCompaction(long maxBytes) {
+        return pendingCompactions == 0 && recordBytes > maxBytes;
+    }
+
+    /**
+     * Saves the whole project to the project file on the journal thread and
+     * starts the journal anew. The edits appended until now must be contained
+     * in the project, later edits are kept in the journal. If an earlier
+     * compaction did not start yet, it is replaced by this one.
+     *
+     * @param project the project, its files may be read lazily on the
+     * journal thread
+     * @param container true to write a compressed container, false for JSON
+     * @param callback called on the journal thread when done, may be null
+     * @return the index of the written project file
+     */
+    public Future<ProjectIndex> compact(Project project, boolean container, ICompactionCallback callback) {
+        CompletableFuture<ProjectIndex> future = new CompletableFuture<>();
+        Compaction compaction = new Compaction(project, container);
+        compaction.futures.add(future);
+        if (callback != null) {
+            compaction.callbacks.add(callback);
+        }
+        synchronized (this) {
+            // the records before the replaced compaction are also before this one, so it is moved to the end
+            Iterator<Object> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Object item = iterator.next();
+                if (item instanceof Compaction) {
+                    iterator.remove();
+                    compaction.futures.addAll(((Compaction) item).futures);
+                    compaction.callbacks.addAll(((Compaction) item).callbacks);
+                    pendingCompactions--;
+                    Log.debug(ProjectJournal.class, "Save of " + projectFile + " replaced by a newer one");
+                }
+            }
+            recordBytes = 0;
+            pendingCompactions++;
+            queue.add(compaction);
+        }
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Writes and forces all appended records to disk and waits for the
+     * pending compactions, blocks until done.
+     */
+    public void flush() {
+        runOnJournalThread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Flushes and closes the journal. A journal without records is deleted.
+     */
+    public void close() {
+        runOnJournalThread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+                closed = true;
+                if (channel == null) {
+                    return;
+                }
+                try {
+                    boolean empty = channel.size() <= HEADER_BYTES;
+                    channel.close();
+                    if (empty) {
+                        journalFile.delete();
+                    }
+                } catch (IOException e) {
+                    Log.error(ProjectJournal.class, "Could not close journal " + journalFile + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void runOnJournalThread(Runnable task) {
+        try {
+            ioExecutor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error(ProjectJournal.class, "Journal " + journalFile + " failed: " + e.getCause());
+        }
+    }
+
+    /**
+     * Closes the journal and deletes it, the recorded edits are discarded.
+     */
+    public void delete() {
+        close();
+        journalFile.delete();
+    }
+
+    /**
+     * Checks if there is a journal with edits for a project file.
+     *
+     * @param projectFile the project file
+     * @return true if a journal with at least one record exists and applies
+     * to the project file as it is
+     */
+    public static boolean hasChanges(File projectFile) {
+        File journalFile = getJournalFile(projectFile);
+        if (!journalFile.isFile() || journalFile.length() <= HEADER_BYTES) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if (!readHeader(in, projectFile)) {
+                Log.warning(ProjectJournal.class, "Journal " + journalFile + " does not belong to the project file, it is ignored.");
+                return false;
+            }
+            return readRecord(in, journalFile.length() - HEADER_BYTES) != null;
+        } catch (IOException e) {
+            Log.error(ProjectJournal.class, "Could not read journal " + journalFile + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Replays the journal of a project file on the project.
+     *
+     * @param projectFile the project file
+     * @return the project with the edits applied, the files not changed by
+     * the journal are read lazily from the project file
+     * @throws IOException if the project or journal could not be read, or
+     * the journal does not apply to the project
+     */
+    public static Project recover(File projectFile) throws IOException {
+        final ProjectIndex base = ProjectIndex.read(projectFile);
+        List<String> titles = new ArrayList<>(base.getTitles());
+        // the position of a file in the project file, or its edited content
+        final List<Object> contents = new ArrayList<>();
+        for (int i = 0; i < base.getTabCount(); i++) {
+            contents.add(i);
+        }
+        File journalFile = getJournalFile(projectFile);
+        int recordCount = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if (!readHeader(in, projectFile)) {
+                throw new IOException("Journal " + journalFile + " does not belong to the project file");
+            }
+            long remainingBytes = journalFile.length() - HEADER_BYTES;
+            byte[] payload;
+            while ((payload = readRecord(in, remainingBytes)) != null) {
+                remainingBytes -= RECORD_FRAME_BYTES + payload.length;
+                applyRecord(payload, base, titles, contents);
+                recordCount++;
+            }
+        }
+        Log.info(ProjectJournal.class, "Recovered " + recordCount + " edits from " + journalFile);
+        List<String> files = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                Object content = contents.get(index);
+                if (content instanceof StringBuilder) {
+                    return content.toString();
+                }
+                try {
+                    return base.readFile((Integer) content);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public int size() {
+                return contents.size();
+            }
+        };
+        return new Project(titles, files, base.getJaPyVersion(), new Date());
+    }
+
+    private static void applyRecord(byte[] payload, ProjectIndex base, List<String> titles, List<Object> contents) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        int tab = in.readInt();
+        if (tab < 0 || tab > contents.size() || (tab == contents.size() && type != RECORD_ADD_TAB)) {
+            throw new IOException("Journal names tab " + tab + " of " + contents.size());
+        }
+        switch (type) {
+            case RECORD_INSERT: {
+                int offset = in.readInt();
+                String text = readString(in);
+                StringBuilder content = getContent(base, contents, tab);
+                if (offset < 0 || offset > content.length()) {
+                    throw new IOException("Journal inserts at " + offset + " of " + content.length());
+                }
+                content.insert(offset, text);
+                break;
+            }
+            case RECORD_REMOVE: {
+                int offset = in.readInt();
+                int length = in.readInt();
+                StringBuilder content = getContent(base, contents, tab);
+                if (offset < 0 || length < 0 || offset + length > content.length()) {
+                    throw new IOException("Journal removes " + length + " at " + offset + " of " + content.length());
+                }
+                content.delete(offset, offset + length);
+                break;
+            }
+            case RECORD_ADD_TAB:
+                titles.add(tab, readString(in));
+                contents.add(tab, new StringBuilder(readString(in)));
+                break;
+            case RECORD_CLOSE_TAB:
+                titles.remove(tab);
+                contents.remove(tab);
+                break;
+            default:
+                throw new IOException("Unknown journal record " + type);
+        }
+    }
+
+    private static StringBuilder getContent(ProjectIndex base, List<Object> contents, int tab) throws IOException {
+        Object content = contents.get(tab);
+        if (content instanceof StringBuilder) {
+            return (StringBuilder) content;
+        }
+        String fileContent = base.readFile((Integer) content);
+        StringBuilder edited = new StringBuilder(fileContent != null ? fileContent : "");
+        contents.set(tab, edited);
+        return edited;
+    }
+
+    private void append(byte[] payload) {
+        if (channel == null) {
+            return;
+        }
+        boolean scheduleDrain;
+        synchronized (this) {
+            queue.add(payload);
+            recordBytes += payload.length + 8;
+            scheduleDrain = !drainScheduled;
+            drainScheduled = true;
+        }
+        if (scheduleDrain) {
+            ioExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            }, FSYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Processes the queue on the journal thread. The records are forced to
+     * disk once per batch.
+     */
+    private void drain() {
+        List<Object> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(queue);
+            queue.clear();
+            drainScheduled = false;
+        }
+        boolean written = false;
+        CRC32 crc = new CRC32();
+        for (Object item : batch) {
+            if (closed) {
+                // edits after closing are not journaled, compactions fail
+                if (item instanceof Compaction) {
+                    compactionDone((Compaction) item, null, new IOException("Journal " + journalFile + " is closed"));
+                }
+            } else if (item instanceof byte[]) {
+                byte[] payload = (byte[]) item;
+                crc.reset();
+                crc.update(payload);
+                ByteBuffer buffer = ByteBuffer.allocate(payload.length + 8);
+                buffer.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+                buffer.flip();
+                written |= write(buffer);
+            } else {
+                if (written) {
+                    force();
+                    written = false;
+                }
+                compact((Compaction) item);
+            }
+        }
+        if (written) {
+            force();
+        }
+    }
+
+    private void compact(Compaction compaction) {
+        ProjectIndex index = null;
+        IOException failure = null;
+        try {
+            if (!ProjectJsonConverter.getInstance().writeProject(compaction.project, projectFile, compaction.container)) {
+                throw new IOException("Could not write project " + projectFile);
+            }
+            index = ProjectIndex.read(projectFile);
+        } catch (IOException e) {
+            failure = e;
+            Log.error(ProjectJournal.class, "Could not save project, the edits stay in the journal: " + e.getMessage());
+        }
+        if (index != null && channel != null) {
+            // the records up to here are in the project file now
+            try {
+                channel.truncate(0);
+                writeHeader(channel, index.getFileLength(), index.getLastModified());
+                writeFailed = false;
+            } catch (IOException e) {
+                writeFailed("Could not start journal " + journalFile + " anew: " + e.getMessage());
+            }
+        }
+        compactionDone(compaction, index, failure);
+    }
+
+    private void compactionDone(Compaction compaction, ProjectIndex index, IOException failure) {
+        synchronized (this) {
+            pendingCompactions--;
+        }
+        for (CompletableFuture<ProjectIndex> future : compaction.futures) {
+            if (failure == null) {
+                future.complete(index);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+        for (ICompactionCallback callback : compaction.callbacks) {
+            if (failure == null) {
+                callback.compacted(index, compaction.project);
+            } else {
+                callback.failed();
+            }
+        }
+    }
+
+    private boolean write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return true;
+        } catch (IOException e) {
+            writeFailed("Could not write journal " + journalFile + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            writeFailed("Could not force journal " + journalFile + " to disk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reports the first failure only, the edits are still in the editor and
+     * the next compaction starts a new journal.
+     */
+    private void writeFailed(String message) {
+        if (!writeFailed) {
+            writeFailed = true;
+            Log.error(ProjectJournal.class, message);
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, long projectFileLength, long projectFileLastModified) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putLong(MAGIC).putInt(FORMAT_VERSION).putLong(projectFileLength).putLong(projectFileLastModified);
+        header.flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Reads the header of a journal.
+     *
+     * @return true if the journal applies to the project file as it is
+     */
+    private static boolean readHeader(DataInputStream in, File projectFile) throws IOException {
+        if (in.readLong() != MAGIC) {
+            throw new IOException("No JaPy journal");
+        }
+        int version = in.readInt();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Journal format " + version + " is newer than this JaPy supports");
+        }
+        long projectFileLength = in.readLong();
+        long projectFileLastModified = in.readLong();
+        return projectFile.length() == projectFileLength && projectFile.lastModified() == projectFileLastModified;
+    }
+
+    /**
+     * Reads the payload of the next record. The length of a record that was
+     * not written completely may be garbage, so it is checked against the
+     * bytes left before anything is allocated.
+     *
+     * @param remainingBytes the bytes left in the journal
+     * @return the payload, null at the end of the journal or at a record that
+     * was not written completely
+     */
+    private static byte[] readRecord(DataInputStream in, long remainingBytes) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 0 || length > remainingBytes - RECORD_FRAME_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string of a record payload.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        // the stream reads from the payload, so available() is exact
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Journal string of " + length + " bytes exceeds its record");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A compaction in the queue of the journal, with the callers waiting for
+     * it and for the compactions it replaced.
+     */
+    private static class Compaction {
+
+        private final Project project;
+        private final boolean container;
+        private final List<CompletableFuture<ProjectIndex>> futures = new ArrayList<>();
+        private final List<ICompactionCallback> callbacks = new ArrayList<>();
+
+        Compaction(Project project, boolean container) {
+            this.project = project;
+            this.container = container;
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package model;
 
 import console.Log;
+import filehandling.FileHandlingUtil;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
-import org.json.simple.JSONObject;
-import org.json.simple.JSONArray;
-import org.json.simple.parser.JSONParser;
 
 /**
- * Converter Files <-> JSON.
+ * Converter Files <-> JSON. Projects are read and written with
+ * {@link ProjectJsonReader} and {@link ProjectJsonWriter}, which stream the
+ * tabs instead of building a JSON tree. Project files may also be compressed
+ * containers, see {@link ProjectContainer}, the format is detected on load.
  *
  * @author Clemens Strobel
  * @date 2020/02/04
@@ -18,6 +30,7 @@ import org.json.simple.parser.JSONParser;
 public class ProjectJsonConverter {
 
     private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
 
     private static ProjectJsonConverter instance;
 
@@ -38,43 +51,136 @@ public class ProjectJsonConverter {
     }
 
     public String projectToJsonString(Project project) {
-        JSONObject objToReturn = new JSONObject();
+        StringWriter writer = new StringWriter();
+        writeProject(project, writer);
+        return writer.toString();
+    }
 
-        objToReturn.put("jaPyVersion", project.getJaPyVersion());
-        objToReturn.put("modificationDate", sdf.format(project.getModificationDate()));
-        JSONArray titlesJSONArray = new JSONArray();
-        for (String t : project.getTitles()) {
-            titlesJSONArray.add(t);
-        }
-        objToReturn.put("titles", titlesJSONArray);
-        JSONArray filesJSONArray = new JSONArray();
-        for (String f : project.getFiles()) {
-            filesJSONArray.add(f);
+    public Project jsonStringToProject(String jsonString) {
+        if (jsonString == null) {
+            Log.error(ProjectJsonConverter.class, "Could not parse project! No content.");
+            return null;
         }
-        objToReturn.put("files", filesJSONArray);
-
-        return objToReturn.toJSONString();
+        return readProject(new StringReader(jsonString));
     }
 
-    public Project jsonStringToProject(String jsonString) {
+    /**
+     * Reads a project from a file, JSON or container, without loading the
+     * whole file into memory first.
+     *
+     * @param file the project file
+     * @return the project, null if the file could not be read or parsed
+     */
+    public Project readProject(File file) {
         try {
-            JSONParser parser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) parser.parse(jsonString);
-
-            String jaPyVersion = (String) jsonObject.get("jaPyVersion");
-            Date modificationDate = sdf.parse((String) jsonObject.get("modificationDate"));
-            List<String> titles = new ArrayList<>();
-            for (Object titleJSONObject : (JSONArray) jsonObject.get("titles")) {
-                titles.add((String) titleJSONObject.toString());
+            if (ProjectContainer.isContainer(file)) {
+                return ProjectContainer.read(file);
             }
-            List<String> files = new ArrayList<>();
-            for (Object fileJSONObject : (JSONArray) jsonObject.get("files")) {
-                files.add((String) fileJSONObject.toString());
+        } catch (IOException e) {
+            Log.error(ProjectJsonConverter.class, "Could not read project container " + file + "! " + e.getMessage());
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return readProject(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), CHANNEL_BUFFER_SIZE));
+        } catch (IOException e) {
+            Log.error(ProjectJsonConverter.class, "Error reading file " + file + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the index of a project file, only the titles are loaded.
+     *
+     * @param file the project file
+     * @return the index, null if the file could not be read or parsed
+     */
+    public ProjectIndex indexProject(File file) {
+        try {
+            return ProjectIndex.read(file);
+        } catch (IOException e) {
+            Log.error(ProjectJsonConverter.class, "Could not index project " + file + "! " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Writes a project to a file in JSON.
+     *
+     * @param project the project
+     * @param file the project file, replaced if it exists
+     * @return true if the project was written
+     */
+    public boolean writeProject(Project project, File file) {
+        return writeProject(project, file, false);
+    }
+
+    /**
+     * Writes a project to a file atomically, see
+     * {@link FileHandlingUtil#writeFileAtomically}. Writing to a temporary
+     * file first is also needed because the tabs may still be read lazily
+     * from the file that gets replaced.
+     *
+     * @param project the project
+     * @param file the project file, replaced if it exists
+     * @param container true to write a compressed container, false for JSON
+     * @return true if the project was written
+     */
+    public boolean writeProject(final Project project, File file, final boolean container) {
+        return FileHandlingUtil.getInstance().writeFileAtomically(file, new FileHandlingUtil.IChannelWriter() {
+            @Override
+            public boolean write(FileChannel channel) throws IOException {
+                if (container) {
+                    ProjectContainer.write(project, new BufferedOutputStream(Channels.newOutputStream(channel), CHANNEL_BUFFER_SIZE));
+                    return true;
+                }
+                return writeProject(project, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), CHANNEL_BUFFER_SIZE));
             }
-            return new Project(titles, files, jaPyVersion, modificationDate);
+        });
+    }
+
+    /**
+     * Reads a project from a reader, the reader is not closed.
+     *
+     * @param reader the reader
+     * @return the project, null if it could not be parsed
+     */
+    public Project readProject(Reader reader) {
+        try {
+            return new ProjectJsonReader(reader).readProject();
         } catch (Exception e) {
             Log.error(ProjectJsonConverter.class, "Could not parse project! " + e.getMessage());
         }
         return null;
     }
+
+    /**
+     * Writes a project to a writer, the writer is flushed but not closed. The
+     * list of files may load its elements lazily and throw an
+     * UncheckedIOException, the project is then not written.
+     *
+     * @param project the project
+     * @param writer the writer
+     * @return true if the project was written
+     */
+    public boolean writeProject(Project project, Writer writer) {
+        try {
+            new ProjectJsonWriter(writer).writeProject(project);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            Log.error(ProjectJsonConverter.class, "Could not write project! " + e.getMessage());
+        }
+        return false;
+    }
+
+    static synchronized String formatDate(Date date) {
+        return sdf.format(date);
+    }
+
+    static synchronized Date parseDate(String date) throws IOException {
+        try {
+            return sdf.parse(date);
+        } catch (ParseException e) {
+            throw new IOException("Invalid date " + date);
+        }
+    }
 }
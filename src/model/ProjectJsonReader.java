@@ -0,0 +1,435 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streaming reader for projects in JSON. The text is read in small chunks and
+ * every tab is decoded straight into its string, so no tree of the whole
+ * document and no copy of the whole file is ever held in memory.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectJsonReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder value = new StringBuilder();
+    private int position = 0;
+    private int limit = 0;
+    // number of chars before the buffer, for error messages and index offsets
+    private long offset = 0;
+    // set while an index is read, every char is then one byte of the file
+    private boolean indexing = false;
+
+    public ProjectJsonReader(Reader reader) {
+        this(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new reader with a custom buffer size, e.g. a small one for a
+     * single short string.
+     *
+     * @param reader the reader
+     * @param bufferSize the number of chars read at once
+     */
+    public ProjectJsonReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * Reads a project. Members other than the known ones are skipped, their
+     * order does not matter.
+     *
+     * @return the project
+     * @throws IOException if the text could not be read or is no valid
+     * project
+     */
+    public Project readProject() throws IOException {
+        ProjectMembers members = readMembers();
+        return new Project(members.titles, members.files, members.jaPyVersion, members.modificationDate);
+    }
+
+    /**
+     * Reads the index of a project, the tab contents are skipped and only
+     * their byte ranges are kept. The reader must decode the file as
+     * ISO-8859-1, so that every char stands for one byte.
+     *
+     * @param file the project file
+     * @param fileLength the length of the file when the reader was opened
+     * @param lastModified the modification time of the file then
+     * @return the index
+     * @throws IOException if the text could not be read or is no valid
+     * project
+     */
+    ProjectIndex readIndex(File file, long fileLength, long lastModified) throws IOException {
+        indexing = true;
+        ProjectMembers members = readMembers();
+        if (members.titles.size() != members.fileOffsets.size()) {
+            throw error("Titles and files do not match");
+        }
+        long[] offsets = new long[members.fileOffsets.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = members.fileOffsets.get(i);
+        }
+        return new ProjectIndex(file, fileLength, lastModified, members.titles, offsets, members.jaPyVersion, members.modificationDate);
+    }
+
+    /**
+     * Reads a single string or null, e.g. a tab content at its index offset.
+     *
+     * @return the string
+     * @throws IOException if the text could not be read or is no string
+     */
+    String readStringValue() throws IOException {
+        return readNullableString();
+    }
+
+    private ProjectMembers readMembers() throws IOException {
+        ProjectMembers members = new ProjectMembers();
+        boolean hasFiles = false;
+        expect('{');
+        if (peek() == '}') {
+            next();
+        } else {
+            do {
+                expect('"');
+                String key = readText();
+                expect(':');
+                switch (key) {
+                    case "jaPyVersion":
+                        members.jaPyVersion = readNullableString();
+                        break;
+                    case "modificationDate":
+                        String date = readNullableString();
+                        members.modificationDate = date == null ? null : ProjectJsonConverter.parseDate(date);
+                        break;
+                    case "titles":
+                        members.titles = readStringArray();
+                        break;
+                    case "files":
+                        hasFiles = true;
+                        if (indexing) {
+                            readOffsetArray(members.fileOffsets);
+                        } else {
+                            members.files = readStringArray();
+                        }
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            } while (nextSeparator('}'));
+        }
+        if (peek() != -1) {
+            throw error("Unexpected content after the project");
+        }
+        if (members.titles == null || !hasFiles || members.modificationDate == null) {
+            throw error("Missing titles, files or modificationDate");
+        }
+        return members;
+    }
+
+    private List<String> readStringArray() throws IOException {
+        List<String> strings = new ArrayList<>();
+        expect('[');
+        if (peek() == ']') {
+            next();
+            return strings;
+        }
+        do {
+            strings.add(readNullableString());
+        } while (nextSeparator(']'));
+        return strings;
+    }
+
+    /**
+     * Skips an array of strings and keeps the offset of every string, -1 for
+     * null.
+     */
+    private void readOffsetArray(List<Long> offsets) throws IOException {
+        expect('[');
+        if (peek() == ']') {
+            next();
+            return;
+        }
+        do {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                offsets.add(-1L);
+            } else {
+                offsets.add(offset + position);
+                expect('"');
+                skipString();
+            }
+        } while (nextSeparator(']'));
+    }
+
+    private String readNullableString() throws IOException {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        expect('"');
+        return readText();
+    }
+
+    /**
+     * Reads the rest of a string. While indexing, the chars are the bytes of
+     * UTF-8, they are decoded before the escapes.
+     */
+    private String readText() throws IOException {
+        if (!indexing) {
+            return readString();
+        }
+        value.setLength(0);
+        value.append('"');
+        while (true) {
+            int c = read();
+            value.append((char) c);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                value.append((char) read());
+            }
+        }
+        String text = new String(value.toString().getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+        return new ProjectJsonReader(new StringReader(text), text.length()).readStringValue();
+    }
+
+    /**
+     * Reads the rest of a string, the opening quote is already consumed.
+     */
+    private String readString() throws IOException {
+        value.setLength(0);
+        while (true) {
+            // copy plain runs of the buffer at once
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            value.append(buffer, start, position - start);
+            if (position == limit) {
+                if (!fill()) {
+                    throw error("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return value.toString();
+            }
+            int escaped = read();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append((char) escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    value.append((char) code);
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '"':
+                next();
+                skipString();
+                break;
+            case '{':
+            case '[':
+                next();
+                int close = c == '{' ? '}' : ']';
+                if (peek() == close) {
+                    next();
+                    break;
+                }
+                do {
+                    if (c == '{') {
+                        expect('"');
+                        skipString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (nextSeparator(close));
+                break;
+            case 't':
+                expectLiteral("true");
+                break;
+            case 'f':
+                expectLiteral("false");
+                break;
+            case 'n':
+                expectLiteral("null");
+                break;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw error("Unexpected character");
+                }
+                while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                    position++;
+                    c = position < limit || fill() ? buffer[position] : -1;
+                }
+                break;
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            while (position < limit) {
+                char c = buffer[position++];
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    read();
+                }
+            }
+            if (!fill()) {
+                throw error("Unterminated string");
+            }
+        }
+    }
+
+    /**
+     * Reads the separator after a member or element.
+     *
+     * @return true if another member or element follows, false if the
+     * closing bracket was read
+     */
+    private boolean nextSeparator(int close) throws IOException {
+        int c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c != close) {
+            throw error("Expected ',' or '" + (char) close + "'");
+        }
+        return false;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        peek();
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("Expected " + literal);
+            }
+        }
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it.
+     */
+    private int peek() throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != '\uFEFF') {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Skips whitespace and consumes the next character.
+     */
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    /**
+     * Consumes the next character, whitespace included.
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("Unexpected end of project");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at character " + (offset + position));
+    }
+
+    /**
+     * The members of a project, as far as they are read.
+     */
+    private static class ProjectMembers {
+
+        private String jaPyVersion;
+        private Date modificationDate;
+        private List<String> titles;
+        private List<String> files;
+        private final List<Long> fileOffsets = new ArrayList<>();
+    }
+}
@@ -0,0 +1,118 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streaming writer for projects in JSON. Every tab is escaped straight into
+ * the writer, so no string of the whole document is built.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectJsonWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final Writer writer;
+
+    /**
+     * Creates a new project writer.
+     *
+     * @param writer the writer, should be buffered
+     */
+    public ProjectJsonWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes a project, the writer is flushed but not closed.
+     *
+     * @param project the project
+     * @throws IOException if the writer fails
+     */
+    public void writeProject(Project project) throws IOException {
+        writer.write("{\"jaPyVersion\":");
+        writeNullableString(project.getJaPyVersion());
+        writer.write(",\"modificationDate\":");
+        writeString(ProjectJsonConverter.formatDate(project.getModificationDate()));
+        writer.write(",\"titles\":");
+        writeStringArray(project.getTitles());
+        writer.write(",\"files\":");
+        writeStringArray(project.getFiles());
+        writer.write('}');
+        writer.flush();
+    }
+
+    private void writeStringArray(List<String> strings) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < strings.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeNullableString(strings.get(i));
+        }
+        writer.write(']');
+    }
+
+    private void writeNullableString(String s) throws IOException {
+        if (s == null) {
+            writer.write("null");
+        } else {
+            writeString(s);
+        }
+    }
+
+    /**
+     * Writes a string with the same escaping as json-simple.
+     */
+    private void writeString(String s) throws IOException {
+        writer.write('"');
+        int start = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            String escaped;
+            switch (c) {
+                case '"':
+                    escaped = "\\\"";
+                    break;
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '/':
+                    escaped = "\\/";
+                    break;
+                case '\b':
+                    escaped = "\\b";
+                    break;
+                case '\f':
+                    escaped = "\\f";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                default:
+                    if (c <= '\u001F' || (c >= '\u007F' && c <= '\u009F') || (c >= '\u2000' && c <= '\u20FF')) {
+                        escaped = new String(new char[]{'\\', 'u', HEX_DIGITS[(c >> 12) & 15], HEX_DIGITS[(c >> 8) & 15], HEX_DIGITS[(c >> 4) & 15], HEX_DIGITS[c & 15]});
+                    } else {
+                        continue;
+                    }
+                    break;
+            }
+            // plain runs go to the writer at once
+            writer.write(s, start, i - start);
+            writer.write(escaped);
+            start = i + 1;
+        }
+        writer.write(s, start, length - start);
+        writer.write('"');
+    }
+}
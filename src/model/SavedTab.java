@@ -0,0 +1,83 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Where the content of a tab is in a saved project file, so that a tab that
+ * is not loaded can be read from there. A save moves the tabs it wrote to the
+ * new file on the journal thread, before the next save starts, so that saves
+ * that are already queued do not read from the file the save replaced.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class SavedTab {
+
+    private volatile Location location;
+
+    /**
+     * Checks if the tab is in a project file.
+     *
+     * @return true if the tab was loaded from or saved to a project file
+     */
+    public boolean isSaved() {
+        return location != null;
+    }
+
+    /**
+     * Called when the tab was loaded from or written to a project file.
+     *
+     * @param index the index of the project file
+     * @param position the position of the tab in the project file
+     * @param revision the revision of the tab that is in the file
+     */
+    public void saved(ProjectIndex index, int position, int revision) {
+        location = new Location(index, position, revision);
+    }
+
+    /**
+     * Reads the content of the tab from the project file it was saved to
+     * last.
+     *
+     * @return the content
+     * @throws IOException if the tab is in no project file or the file could
+     * not be read
+     */
+    public String read() throws IOException {
+        Location l = location;
+        if (l == null) {
+            throw new IOException("Tab is in no project file");
+        }
+        String fileContent = l.index.readFile(l.position);
+        return fileContent != null ? fileContent : "";
+    }
+
+    /**
+     * Reads the content of the tab as it was at a revision.
+     *
+     * @param revision the revision of the tab
+     * @return the content
+     * @throws IOException if the revision is not the one in the project file
+     * or the file could not be read
+     */
+    public String read(int revision) throws IOException {
+        Location l = location;
+        if (l != null && l.revision != revision) {
+            throw new IOException("Tab was changed since it was saved to " + l.index.getFile());
+        }
+        return read();
+    }
+
+    private static class Location {
+
+        private final ProjectIndex index;
+        private final int position;
+        private final int revision;
+
+        Location(ProjectIndex index, int position, int revision) {
+            this.index = index;
+            this.position = position;
+            this.revision = revision;
+        }
+    }
+}
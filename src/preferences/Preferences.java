@@ -1,6 +1,7 @@
 package preferences;
 
 import console.Log;
+import console.RollingFileLogSink;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -37,9 +38,24 @@ public class Preferences {
     public boolean showConsole = false;
     public String projectLocation = "https://drive.google.com/uc?id=1GAaJU2x5mgmQnG4FzofUiiMPbrRWVO9Y";
     public String solutionLocation = "";
+    public int interpreterPoolSize = 2;
+    public int consoleMaxLines = 10000;
+    public long consoleMaxChars = 1000000;
+    public int scriptTimeoutSeconds = 0;
+    public int scriptCpuTimeSeconds = 0;
+    public int scriptAllocationBudgetMegabytes = 0;
+    public int maxParallelRuns = 2;
+    public int maxPendingRuns = 8;
+    public int maxLoadedTabs = 20;
+    public boolean compressProjects = false;
+    public int journalMaxKilobytes = 512;
+    public boolean logToFile = true;
+    public int logFileMaxMegabytes = 10;
+    public int logDirectoryMaxMegabytes = 100;
 
     // preferences internals
     private static File preferencesFile;
+    private static RollingFileLogSink logFileSink;
     private static Preferences instance;
 
     private Preferences() {
@@ -82,6 +98,20 @@ public class Preferences {
             props.setProperty("showConsole", String.valueOf(showConsole));
             props.setProperty("projectLocation", projectLocation);
             props.setProperty("solutionLocation", solutionLocation);
+            props.setProperty("interpreterPoolSize", String.valueOf(interpreterPoolSize));
+            props.setProperty("consoleMaxLines", String.valueOf(consoleMaxLines));
+            props.setProperty("consoleMaxChars", String.valueOf(consoleMaxChars));
+            props.setProperty("scriptTimeoutSeconds", String.valueOf(scriptTimeoutSeconds));
+            props.setProperty("scriptCpuTimeSeconds", String.valueOf(scriptCpuTimeSeconds));
+            props.setProperty("scriptAllocationBudgetMegabytes", String.valueOf(scriptAllocationBudgetMegabytes));
+            props.setProperty("maxParallelRuns", String.valueOf(maxParallelRuns));
+            props.setProperty("maxPendingRuns", String.valueOf(maxPendingRuns));
+            props.setProperty("maxLoadedTabs", String.valueOf(maxLoadedTabs));
+            props.setProperty("compressProjects", String.valueOf(compressProjects));
+            props.setProperty("journalMaxKilobytes", String.valueOf(journalMaxKilobytes));
+            props.setProperty("logToFile", String.valueOf(logToFile));
+            props.setProperty("logFileMaxMegabytes", String.valueOf(logFileMaxMegabytes));
+            props.setProperty("logDirectoryMaxMegabytes", String.valueOf(logDirectoryMaxMegabytes));
             OutputStream out = new FileOutputStream(preferencesFile);
             props.store(out, "JaPy preferences. Do not modify!");
         } catch (Exception e) {
@@ -104,12 +134,50 @@ public class Preferences {
                 }
             }
             logLevel = Integer.valueOf(props.getProperty("logLevel", String.valueOf(logLevel)));
+            Log.setLogLevel(logLevel);
             showConsole = Boolean.valueOf(props.getProperty("showConsole", String.valueOf(showConsole)));
             projectLocation = props.getProperty("projectLocation", projectLocation);
             solutionLocation = props.getProperty("solutionLocation", solutionLocation);
+            interpreterPoolSize = Integer.valueOf(props.getProperty("interpreterPoolSize", String.valueOf(interpreterPoolSize)));
+            consoleMaxLines = Integer.valueOf(props.getProperty("consoleMaxLines", String.valueOf(consoleMaxLines)));
+            consoleMaxChars = Long.valueOf(props.getProperty("consoleMaxChars", String.valueOf(consoleMaxChars)));
+            scriptTimeoutSeconds = Integer.valueOf(props.getProperty("scriptTimeoutSeconds", String.valueOf(scriptTimeoutSeconds)));
+            scriptCpuTimeSeconds = Integer.valueOf(props.getProperty("scriptCpuTimeSeconds", String.valueOf(scriptCpuTimeSeconds)));
+            scriptAllocationBudgetMegabytes = Integer.valueOf(props.getProperty("scriptAllocationBudgetMegabytes", String.valueOf(scriptAllocationBudgetMegabytes)));
+            maxParallelRuns = Integer.valueOf(props.getProperty("maxParallelRuns", String.valueOf(maxParallelRuns)));
+            maxPendingRuns = Integer.valueOf(props.getProperty("maxPendingRuns", String.valueOf(maxPendingRuns)));
+            maxLoadedTabs = Integer.valueOf(props.getProperty("maxLoadedTabs", String.valueOf(maxLoadedTabs)));
+            compressProjects = Boolean.valueOf(props.getProperty("compressProjects", String.valueOf(compressProjects)));
+            journalMaxKilobytes = Integer.valueOf(props.getProperty("journalMaxKilobytes", String.valueOf(journalMaxKilobytes)));
+            logToFile = Boolean.valueOf(props.getProperty("logToFile", String.valueOf(logToFile)));
+            logFileMaxMegabytes = Integer.valueOf(props.getProperty("logFileMaxMegabytes", String.valueOf(logFileMaxMegabytes)));
+            logDirectoryMaxMegabytes = Integer.valueOf(props.getProperty("logDirectoryMaxMegabytes", String.valueOf(logDirectoryMaxMegabytes)));
         } catch (Exception e) {
             Log.error(Preferences.class, e.getMessage());
         }
+        updateLogFile();
+    }
+
+    /**
+     * Get the directory of the log files, next to the preferences file.
+     *
+     * @return the log directory
+     */
+    public File getLogDirectory() {
+        return new File(preferencesFile.getParentFile(), "logs");
+    }
+
+    /**
+     * Adds or removes the log file sink according to logToFile.
+     */
+    public void updateLogFile() {
+        if (logToFile && logFileSink == null && preferencesFile != null) {
+            logFileSink = new RollingFileLogSink(getLogDirectory(), "japy", logFileMaxMegabytes * 1024L * 1024L, logDirectoryMaxMegabytes * 1024L * 1024L);
+            Log.addSink(logFileSink);
+        } else if (!logToFile && logFileSink != null) {
+            Log.removeSink(logFileSink);
+            logFileSink = null;
+        }
     }
 
     public String aesEncryptToBase64(String clearText) {
@@ -9,17 +9,30 @@ package python;
 public interface IPythonCallback {
 
     /**
-     * Called when the Python interpreter produces a new output.
+     * Called when the Python interpreter produced new output. Only the output
+     * written since the last call is passed.
      *
-     * @param output the complete interpreter output
+     * @param chunk the new interpreter output
      */
-    public void interpreterOutput(String output);
+    public void interpreterOutputAppended(String chunk);
 
     /**
-     * Called when the Python interpreter is already running some other script.
+     * Called when the run could not be scheduled, because too many runs are
+     * already waiting.
      */
     public void alreadyRunning();
 
+    /**
+     * Called when the run has to wait for a free slot, because the maximum
+     * number of parallel runs is reached.
+     */
+    public void executionQueued();
+
+    /**
+     * Called when the run got a free slot and starts executing.
+     */
+    public void executionStarted();
+
     /**
      * Called when some syntax error occured.
      * 
@@ -8,11 +8,6 @@ package python;
  */
 public interface IPythonSyntaxCheckerCallback {
 
-    /**
-     * Called when the Python interpreter is already running some other script.
-     */
-    public void alreadyRunning();
-
     /**
      * Called when the Python script has no syntax errors.
      */
@@ -22,12 +17,14 @@ public interface IPythonSyntaxCheckerCallback {
      * Called when some syntax error is in the script.
      *
      * @param error the error message
+     * @param line the line of the error, starting at 1
+     * @param column the column of the error, starting at 0
      */
-    public void syntaxError(String error);
+    public void syntaxError(String error, int line, int column);
 
     /**
      * Called when some error occured during checking the syntax.
-     * 
+     *
      * @param error the error message
      */
     public void otherError(String error);
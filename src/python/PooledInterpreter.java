@@ -0,0 +1,93 @@
+package python;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.python.core.Py;
+import org.python.core.PyModule;
+import org.python.core.PyObject;
+import org.python.core.PyStringMap;
+import org.python.core.PySystemState;
+import org.python.util.InteractiveInterpreter;
+
+/**
+ * A pre-initialized Python interpreter that can be reset and reused for
+ * several runs. Every interpreter has its own system state, so that runs in
+ * parallel do not share sys.modules or sys.stdout.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PooledInterpreter {
+
+    private static final String WARMUP_SCRIPT = "import sys\n" + PythonLibConcatter.getPreludeImports();
+
+    private final InteractiveInterpreter interpreter;
+    private final Set<String> baselineModules = new HashSet<>();
+    private PyStringMap globals;
+
+    PooledInterpreter() {
+        globals = createGlobals();
+        interpreter = new InteractiveInterpreter(globals, new PySystemState());
+        resetStandardError();
+        interpreter.exec(WARMUP_SCRIPT);
+        for (PyObject key : getModules().asIterable()) {
+            baselineModules.add(key.toString());
+        }
+    }
+
+    public InteractiveInterpreter getInterpreter() {
+        return interpreter;
+    }
+
+    public PyStringMap getGlobals() {
+        return globals;
+    }
+
+    /**
+     * Resets the interpreter state so that nothing defined or imported by the
+     * last run is visible in the next one.
+     */
+    public void reset() {
+        globals = createGlobals();
+        interpreter.setLocals(globals);
+        resetStandardError();
+        PyObject modules = getModules();
+        List<PyObject> modulesToRemove = new ArrayList<>();
+        for (PyObject key : modules.asIterable()) {
+            if (!baselineModules.contains(key.toString())) {
+                modulesToRemove.add(key);
+            }
+        }
+        for (PyObject key : modulesToRemove) {
+            modules.__delitem__(key);
+        }
+        modules.__setitem__("__main__", new PyModule("__main__", globals));
+    }
+
+    public void close() {
+        interpreter.cleanup();
+        interpreter.close();
+    }
+
+    /**
+     * Points sys.stderr to the System.err of the time of writing, the
+     * System.err at the creation of the interpreter may have been replaced
+     * since, e.g. by the console of the editor.
+     */
+    private void resetStandardError() {
+        interpreter.setErr(PythonOutputRouter.getErrorInstance());
+    }
+
+    private PyObject getModules() {
+        return interpreter.getSystemState().modules;
+    }
+
+    private static PyStringMap createGlobals() {
+        PyStringMap globals = Py.newStringMap();
+        globals.__setitem__("__name__", Py.newString("__main__"));
+        globals.__setitem__("__doc__", Py.None);
+        return globals;
+    }
+}
@@ -0,0 +1,430 @@
+package python;
+
+import console.Log;
+import game.HeadlessGameSession;
+import java.awt.Frame;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.Py;
+import org.python.core.PyCode;
+import org.python.core.PyException;
+import org.python.core.PyFrame;
+import org.python.core.PyObject;
+import org.python.core.PyTraceback;
+import org.python.core.TraceFunction;
+import org.python.util.InteractiveInterpreter;
+
+/**
+ * A single run of a Python script. The run can be cancelled cooperatively:
+ * the interpreter checks for cancellation on every executed line, a watchdog
+ * enforces the wall clock timeout, the CPU time budget and the allocation
+ * cap.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonExecution implements Runnable {
+
+    private static final long WATCHDOG_PERIOD_MILLIS = 50;
+    private static final long CANCEL_GRACE_MILLIS = 1000;
+    private static final String DEFAULT_SOURCE_NAME = "<script>";
+
+    private static final AtomicLong runCounter = new AtomicLong();
+
+    private static final ScheduledExecutorService watchdogExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "PythonExecutionWatchdog");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    // windows already attributed to some run, so that parallel runs do not close each others windows
+    private static final Set<Frame> claimedFrames = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Frame, Boolean>()));
+
+    private final String pythonString;
+    private final IPythonCallback callback;
+    private final PythonOutputSink outputSink;
+    private final long timeoutMillis;
+    private final long cpuTimeMillis;
+    private final long allocationLimitBytes;
+    private final Set<Frame> ownFrames = Collections.synchronizedSet(new HashSet<Frame>());
+    private final AtomicBoolean cancelReported = new AtomicBoolean(false);
+    private Set<Frame> framesBefore;
+    private final CancellationTraceFunction traceFunction = new CancellationTraceFunction();
+    private volatile Thread thread;
+    private volatile boolean cancelRequested = false;
+    private volatile String timeoutReason;
+    private volatile boolean finished = false;
+    private ScheduledFuture<?> watchdog;
+    private Writer errorWriter;
+    private String sourceName = DEFAULT_SOURCE_NAME;
+    private SourceMap sourceMap;
+
+    /**
+     * Creates a new run of a Python script.
+     *
+     * @param pythonString the script
+     * @param callback the callback for output and errors
+     * @param timeoutMillis the maximum wall clock time, 0 for no limit
+     * @param cpuTimeMillis the maximum CPU time, 0 for no limit
+     */
+    public PythonExecution(String pythonString, IPythonCallback callback, long timeoutMillis, long cpuTimeMillis) {
+        this(pythonString, callback, timeoutMillis, cpuTimeMillis, 0);
+    }
+
+    /**
+     * Creates a new run of a Python script.
+     *
+     * @param pythonString the script
+     * @param callback the callback for output and errors
+     * @param timeoutMillis the maximum wall clock time, 0 for no limit
+     * @param cpuTimeMillis the maximum CPU time, 0 for no limit
+     * @param allocationLimitBytes the maximum number of bytes the script thread
+     * may allocate in total, 0 for no limit. This is not a heap limit, the
+     * allocations count even if the objects are garbage collected already
+     */
+    public PythonExecution(String pythonString, IPythonCallback callback, long timeoutMillis, long cpuTimeMillis, long allocationLimitBytes) {
+        this.pythonString = pythonString;
+        this.callback = callback;
+        this.outputSink = new PythonOutputSink(callback);
+        this.timeoutMillis = timeoutMillis;
+        this.cpuTimeMillis = cpuTimeMillis;
+        this.allocationLimitBytes = allocationLimitBytes;
+    }
+
+    /**
+     * Sets the writer for sys.stderr of the script. By default the script
+     * writes to System.err.
+     *
+     * @param errorWriter the writer
+     */
+    public void setErrorWriter(Writer errorWriter) {
+        this.errorWriter = errorWriter;
+    }
+
+    /**
+     * Sets the name errors use for the script, e.g. the title of its tab.
+     *
+     * @param sourceName the name
+     */
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
+    @Override
+    public void run() {
+        framesBefore = new HashSet<>(Arrays.asList(Frame.getFrames()));
+        thread = Thread.currentThread();
+        if (cancelRequested) {
+            // cancelled while waiting for a free slot
+            finished = true;
+            reportCancelled();
+            return;
+        }
+        callback.executionStarted();
+        PooledInterpreter interpreter = null;
+        boolean completed = false;
+        try {
+            interpreter = PythonInterpreterPool.getInstance().acquire();
+            startWatchdog();
+            InteractiveInterpreter pythonInterpreter = interpreter.getInterpreter();
+            pythonInterpreter.setOut(outputSink);
+            if (errorWriter != null) {
+                pythonInterpreter.setErr(errorWriter);
+                PythonOutputRouter.getErrorInstance().register(interpreter.getGlobals(), errorWriter);
+            }
+            PythonOutputRouter.getInstance().register(interpreter.getGlobals(), outputSink);
+            Py.getThreadState().tracefunc = traceFunction;
+            traceFunction.checkCancelled();
+            for (PyCode lib : PythonLibConcatter.getLibs(pythonString)) {
+                pythonInterpreter.exec(lib);
+            }
+            // every run compiles its script with a file name of its own, so that its errors can be told apart
+            String generatedFile = "<run-" + runCounter.incrementAndGet() + ">";
+            String script = PythonLibConcatter.removeLibImports(pythonString);
+            sourceMap = PythonLibConcatter.createSourceMap(pythonString, generatedFile, sourceName);
+            SourceMap.register(sourceMap);
+            pythonInterpreter.exec(Py.compile_flags(script, generatedFile, CompileMode.exec, new CompilerFlags()));
+            HeadlessGameSession.runPendingGame();
+            completed = true;
+        } catch (Exception e) {
+            outputSink.deliver();
+            reportError(e);
+        } finally {
+            claimOwnFrames();
+            outputSink.deliver();
+            Py.getThreadState().tracefunc = null;
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            finished = true;
+            if (interpreter != null) {
+                if (completed && !cancelRequested) {
+                    PythonInterpreterPool.getInstance().release(interpreter);
+                } else {
+                    // a cancelled interpreter is in an undefined state, never reuse it
+                    PythonInterpreterPool.getInstance().discard(interpreter);
+                }
+            }
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Cancels the run. Windows opened by the script are disposed, also if the
+     * script already finished, and its output is no longer delivered. The script thread is interrupted and
+     * stops at the next executed line. Does not wait for the script thread,
+     * the callback is told as soon as it stopped, or after a grace period if
+     * it is blocked outside of Python code.
+     */
+    public void cancel() {
+        cancel(null);
+    }
+
+    public boolean isStarted() {
+        return thread != null;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /**
+     * Get the limit that stopped the run.
+     *
+     * @return the exceeded limit, null if no limit was exceeded
+     */
+    public String getExceededLimit() {
+        return timeoutReason;
+    }
+
+    /**
+     * Waits until the script thread has finished.
+     *
+     * @param millis the maximum time to wait
+     * @return true, if the script thread has finished
+     */
+    public boolean awaitFinished(long millis) {
+        Thread t = thread;
+        if (t == null || finished) {
+            return finished || t == null;
+        }
+        try {
+            t.join(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return finished;
+    }
+
+    private void cancel(String reason) {
+        if (cancelRequested) {
+            return;
+        }
+        if (reason != null) {
+            timeoutReason = reason;
+        }
+        cancelRequested = true;
+        outputSink.detach();
+        Thread t = thread;
+        if (t == null) {
+            reportCancelled();
+            return;
+        }
+        disposeOwnFrames();
+        if (!finished) {
+            t.interrupt();
+            watchdogExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!finished) {
+                        String message = "Script thread did not stop within " + CANCEL_GRACE_MILLIS + " ms, it is blocked outside of Python code.";
+                        Log.warning(PythonExecution.class, message);
+                        callback.pythonRuntimeError("Python runtime error on cancelling Python script: " + message);
+                    }
+                }
+            }, CANCEL_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Attributes the windows opened since the start of the run and not yet
+     * attributed to another run to this run.
+     */
+    private void claimOwnFrames() {
+        Set<Frame> before = framesBefore;
+        if (before == null) {
+            return;
+        }
+        synchronized (claimedFrames) {
+            for (Frame f : Frame.getFrames()) {
+                if (!before.contains(f) && !claimedFrames.contains(f)) {
+                    claimedFrames.add(f);
+                    ownFrames.add(f);
+                }
+            }
+        }
+    }
+
+    private void disposeOwnFrames() {
+        if (!finished) {
+            // a finished run claimed its windows already, later windows may belong to newer runs
+            claimOwnFrames();
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (ownFrames) {
+                    for (Frame f : ownFrames) {
+                        f.dispose();
+                    }
+                }
+            }
+        });
+    }
+
+    private void startWatchdog() {
+        long startNanos = System.nanoTime();
+        long threadId = thread.getId();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = cpuTimeMillis > 0 && threadMXBean.isThreadCpuTimeSupported();
+        long startCpuNanos = cpuTimeSupported ? threadMXBean.getThreadCpuTime(threadId) : 0;
+        com.sun.management.ThreadMXBean allocationBean = allocationLimitBytes > 0 ? getAllocationMXBean(threadMXBean) : null;
+        long startAllocatedBytes = allocationBean != null ? allocationBean.getThreadAllocatedBytes(threadId) : 0;
+        watchdog = watchdogExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                if (finished || cancelRequested) {
+                    return;
+                }
+                if (timeoutMillis > 0 && System.nanoTime() - startNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+                    cancel("time limit of " + timeoutMillis + " ms exceeded");
+                } else if (cpuTimeSupported && threadMXBean.getThreadCpuTime(threadId) - startCpuNanos > TimeUnit.MILLISECONDS.toNanos(cpuTimeMillis)) {
+                    cancel("CPU time limit of " + cpuTimeMillis + " ms exceeded");
+                } else if (allocationBean != null && allocationBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes > allocationLimitBytes) {
+                    cancel("allocation budget of " + allocationLimitBytes / (1024 * 1024) + " MB exceeded");
+                }
+            }
+        }, WATCHDOG_PERIOD_MILLIS, WATCHDOG_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationMXBean(ThreadMXBean threadMXBean) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) threadMXBean;
+        }
+        Log.warning(PythonExecution.class, "Allocated memory of threads can not be measured, allocation budget ignored.");
+        return null;
+    }
+
+    private void reportError(Exception e) {
+        if (cancelRequested) {
+            if (timeoutReason != null) {
+                callback.pythonRuntimeError("Python runtime error on executing Python script: " + timeoutReason);
+            } else {
+                reportCancelled();
+            }
+            return;
+        }
+        // a failed script leaves its windows in an undefined state
+        disposeOwnFrames();
+        String message = describe(e);
+        if (message.contains("not defined")) {
+            callback.syntaxError("Syntax error on executing Python script: " + message);
+        } else {
+            callback.pythonRuntimeError("Python runtime error on executing Python script: " + message);
+        }
+    }
+
+    /**
+     * Describes an error with the lines of the script that lead to it, in
+     * the lines of the tab instead of the executed code.
+     */
+    private String describe(Exception e) {
+        String message = String.valueOf(e.getMessage());
+        if (sourceMap == null) {
+            return message;
+        }
+        StringBuilder sb = new StringBuilder(sourceMap.translate(message));
+        if (e instanceof PyException && ((PyException) e).traceback != null) {
+            boolean headerAdded = false;
+            PyTraceback traceback = ((PyException) e).traceback;
+            while (traceback != null) {
+                String fileName = traceback.tb_frame.f_code.co_filename;
+                SourceMap.Position position = sourceMap.lookup(fileName, traceback.tb_lineno);
+                if (position != null) {
+                    if (!headerAdded) {
+                        sb.append("\nTraceback (most recent call last):");
+                        headerAdded = true;
+                    }
+                    sb.append("\n  File \"").append(position.getSourceName()).append("\", line ").append(position.getLine())
+                            .append(", in ").append(traceback.tb_frame.f_code.co_name);
+                }
+                traceback = traceback.tb_next instanceof PyTraceback ? (PyTraceback) traceback.tb_next : null;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void reportCancelled() {
+        if (cancelReported.compareAndSet(false, true)) {
+            callback.executionCancelled();
+        }
+    }
+
+    /**
+     * Trace function that is called by Jython for every executed line and
+     * raises a KeyboardInterrupt as soon as the run got cancelled.
+     */
+    private class CancellationTraceFunction extends TraceFunction {
+
+        void checkCancelled() {
+            if (cancelRequested) {
+                throw new PyException(Py.KeyboardInterrupt, timeoutReason != null ? timeoutReason : "Execution cancelled");
+            }
+        }
+
+        @Override
+        public TraceFunction traceCall(PyFrame frame) {
+            checkCancelled();
+            return this;
+        }
+
+        @Override
+        public TraceFunction traceReturn(PyFrame frame, PyObject ret) {
+            return this;
+        }
+
+        @Override
+        public TraceFunction traceLine(PyFrame frame, int line) {
+            checkCancelled();
+            return this;
+        }
+
+        @Override
+        public TraceFunction traceException(PyFrame frame, PyException exc) {
+            return this;
+        }
+    }
+}
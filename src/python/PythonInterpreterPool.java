@@ -0,0 +1,207 @@
+package python;
+
+import console.Log;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.Py;
+import org.python.core.PyFileWriter;
+import org.python.util.InteractiveConsole;
+import preferences.Preferences;
+
+/**
+ * Pool of pre-initialized Python interpreters. Interpreters are created in the
+ * background, so that a run does not have to pay for the interpreter set up.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonInterpreterPool {
+
+    private static final int CREATION_WAIT_SECONDS = 30;
+
+    private static PythonInterpreterPool instance;
+    private static boolean runtimeInitialized = false;
+    private static boolean firstAcquire = true;
+    private static long prewarmMillis = -1;
+
+    private final LinkedBlockingQueue<PooledInterpreter> idleInterpreters = new LinkedBlockingQueue<>();
+    private final AtomicInteger interpretersInCreation = new AtomicInteger(0);
+    private final ExecutorService refillExecutor;
+
+    private PythonInterpreterPool() {
+        // hide constructor, singleton pattern
+        refillExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PythonInterpreterPool");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Get an instance, singleton pattern.
+     *
+     * @return an instance
+     */
+    public static synchronized PythonInterpreterPool getInstance() {
+        if (instance == null) {
+            instance = new PythonInterpreterPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Initializes the Jython runtime, if not done yet. Only the first call
+     * pays the bootstrap costs.
+     */
+    public static synchronized void initializeRuntime() {
+        if (runtimeInitialized) {
+            return;
+        }
+        if (System.getProperty("python.home") == null) {
+            System.setProperty("python.home", "");
+        }
+        InteractiveConsole.initialize(System.getProperties(), null, new String[0]);
+        // Python code called back from Swing prints to the default system state
+        Py.defaultSystemState.stdout = new PyFileWriter(PythonOutputRouter.getInstance());
+        Py.defaultSystemState.stderr = new PyFileWriter(PythonOutputRouter.getErrorInstance());
+        runtimeInitialized = true;
+    }
+
+    /**
+     * Initializes the Jython runtime, loads the Java classes used by the
+     * preludes and compiles a trivial script on a low priority background
+     * thread, e.g. while the splash screen is visible.
+     */
+    public void prewarm() {
+        interpretersInCreation.incrementAndGet();
+        refillExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long start = System.currentTimeMillis();
+                    initializeRuntime();
+                    long runtimeDone = System.currentTimeMillis();
+                    PooledInterpreter interpreter = new PooledInterpreter();
+                    long importsDone = System.currentTimeMillis();
+                    Py.compile_flags("pass\n", "<prewarm>", CompileMode.exec, new CompilerFlags());
+                    PythonLibConcatter.precompileLibs();
+                    long compileDone = System.currentTimeMillis();
+                    idleInterpreters.offer(interpreter);
+                    prewarmMillis = compileDone - start;
+                    Log.info(PythonInterpreterPool.class, "Startup timing: Python pre-warm took " + prewarmMillis + " ms (runtime " + (runtimeDone - start)
+                            + " ms, imports " + (importsDone - runtimeDone) + " ms, compile incl. preludes " + (compileDone - importsDone) + " ms).");
+                } catch (Exception e) {
+                    Log.error(PythonInterpreterPool.class, "Could not pre-warm Python interpreter: " + e.getMessage());
+                } finally {
+                    interpretersInCreation.decrementAndGet();
+                }
+                fill();
+            }
+        });
+    }
+
+    /**
+     * Creates interpreters in the background until the configured pool size
+     * is reached.
+     */
+    public void fill() {
+        int poolSize = Math.max(1, Preferences.getInstance().interpreterPoolSize);
+        while (idleInterpreters.size() + interpretersInCreation.get() < poolSize) {
+            interpretersInCreation.incrementAndGet();
+            refillExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        idleInterpreters.offer(createInterpreter());
+                    } catch (Exception e) {
+                        Log.error(PythonInterpreterPool.class, "Could not create Python interpreter: " + e.getMessage());
+                    } finally {
+                        interpretersInCreation.decrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes an interpreter out of the pool. If no idle interpreter is
+     * available, a new one is created on the calling thread.
+     *
+     * @return an interpreter ready to execute a script
+     */
+    public PooledInterpreter acquire() {
+        long start = System.currentTimeMillis();
+        PooledInterpreter interpreter = idleInterpreters.poll();
+        if (interpreter == null && interpretersInCreation.get() > 0) {
+            // an interpreter is already being set up in the background, e.g. by the pre-warm
+            try {
+                interpreter = idleInterpreters.poll(CREATION_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (interpreter == null) {
+            Log.debug(PythonInterpreterPool.class, "No idle Python interpreter available, creating one.");
+            interpreter = createInterpreter();
+        }
+        if (firstAcquire) {
+            firstAcquire = false;
+            long waitMillis = System.currentTimeMillis() - start;
+            if (prewarmMillis >= 0) {
+                Log.info(PythonInterpreterPool.class, "Startup timing: first run waited " + waitMillis + " ms for an interpreter, pre-warm saved about " + Math.max(0, prewarmMillis - waitMillis) + " ms.");
+            } else {
+                Log.info(PythonInterpreterPool.class, "Startup timing: first run waited " + waitMillis + " ms for an interpreter, no pre-warm done.");
+            }
+        }
+        fill();
+        return interpreter;
+    }
+
+    /**
+     * Resets an interpreter after a finished run and gives it back to the
+     * pool.
+     *
+     * @param interpreter the interpreter to give back
+     */
+    public void release(PooledInterpreter interpreter) {
+        try {
+            interpreter.reset();
+            if (idleInterpreters.size() < Math.max(1, Preferences.getInstance().interpreterPoolSize)) {
+                idleInterpreters.offer(interpreter);
+            }
+        } catch (Exception e) {
+            Log.error(PythonInterpreterPool.class, "Could not reset Python interpreter: " + e.getMessage());
+            discard(interpreter);
+        }
+    }
+
+    /**
+     * Closes an interpreter that must not be reused, e.g. after a cancelled
+     * run, and creates a replacement in the background.
+     *
+     * @param interpreter the interpreter to throw away
+     */
+    public void discard(PooledInterpreter interpreter) {
+        try {
+            interpreter.close();
+        } catch (Exception e) {
+            Log.error(PythonInterpreterPool.class, "Error on closing Python interpreter: " + e.getMessage());
+        }
+        fill();
+    }
+
+    private PooledInterpreter createInterpreter() {
+        initializeRuntime();
+        return new PooledInterpreter();
+    }
+}
@@ -1,35 +1,240 @@
 package python;
 
-import java.awt.Color;
-import javax.swing.BorderFactory;
+import console.Log;
+import japy.JaPy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.python.core.BytecodeLoader;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.Py;
+import org.python.core.PyCode;
+import org.python.core.imp;
 
 /**
- * Python lib concatter utility class.
+ * Python lib utility class. Provides the JaPyGame and JaPyDialog preludes as
+ * modules that are compiled only once.
  *
  * @author Clemens Strobel
  * @date 2020/02/04
  */
 public class PythonLibConcatter {
-    
-    private static int numberOfRowsAddedLast = 0;
 
-    public static int getNumberOfRowsAddedLast() {
-        return numberOfRowsAddedLast;
+    public static final String JAPY_GAME_LIB = "JaPyGame";
+    public static final String JAPY_DIALOG_LIB = "JaPyDialog";
+
+    private static final Map<String, PyCode> compiledLibs = new HashMap<>();
+
+    /**
+     * Get the compiled preludes imported by a script, in the order they have
+     * to be executed in the namespace of the script.
+     *
+     * @param pythonCode the script
+     * @return the compiled preludes
+     */
+    public static List<PyCode> getLibs(String pythonCode) {
+        List<PyCode> libs = new ArrayList<>();
+        if (pythonCode.contains(getImportStatement(JAPY_DIALOG_LIB))) {
+            libs.add(getCompiledLib(JAPY_DIALOG_LIB));
+        }
+        if (pythonCode.contains(getImportStatement(JAPY_GAME_LIB))) {
+            libs.add(getCompiledLib(JAPY_GAME_LIB));
+        }
+        return libs;
+    }
+
+    /**
+     * Removes the imports of the preludes from a script. The line numbers of
+     * the script stay the same.
+     *
+     * @param pythonCode the script
+     * @return the script without prelude imports
+     */
+    public static String removeLibImports(String pythonCode) {
+        return pythonCode.replace(getImportStatement(JAPY_GAME_LIB), "").replace(getImportStatement(JAPY_DIALOG_LIB), "");
+    }
+
+    /**
+     * Compiles all preludes, so that later runs can use the cached code.
+     */
+    public static void precompileLibs() {
+        getCompiledLib(JAPY_GAME_LIB);
+        getCompiledLib(JAPY_DIALOG_LIB);
+    }
+
+    /**
+     * Creates the source map of a run: the preludes imported by the script
+     * belong to no tab, the lines of the script stay where they are, since
+     * the prelude imports are removed without removing their lines.
+     *
+     * @param pythonCode the script
+     * @param generatedFile the file name the script is compiled with
+     * @param sourceName the name of the tab of the script
+     * @return the source map
+     */
+    public static SourceMap createSourceMap(String pythonCode, String generatedFile, String sourceName) {
+        SourceMap.Builder builder = new SourceMap.Builder();
+        for (String libName : Arrays.asList(JAPY_DIALOG_LIB, JAPY_GAME_LIB)) {
+            if (pythonCode.contains(getImportStatement(libName))) {
+                String source = JAPY_GAME_LIB.equals(libName) ? getGameLib() : getDialogLib();
+                builder.addSegment(getLibFileName(libName), 1, countLines(source), null, 1);
+            }
+        }
+        builder.addSegment(generatedFile, 1, countLines(pythonCode), sourceName, 1);
+        return builder.build();
+    }
+
+    private static int countLines(String s) {
+        int lines = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Get the file names the preludes show up with in tracebacks.
+     *
+     * @return the file names
+     */
+    public static List<String> getLibFileNames() {
+        return Arrays.asList(getLibFileName(JAPY_GAME_LIB), getLibFileName(JAPY_DIALOG_LIB));
+    }
+
+    private static String getLibFileName(String libName) {
+        return libName + ".py";
+    }
+
+    private static String getImportStatement(String libName) {
+        return "import " + libName;
+    }
+
+    /**
+     * Compiles a prelude without the compiled preludes kept in memory, e.g.
+     * to measure what the caches save.
+     *
+     * @param libName the name of the prelude, {@link #JAPY_GAME_LIB} or
+     * {@link #JAPY_DIALOG_LIB}
+     * @param useFileCache true to load the prelude from the compiled file
+     * cache, if it is there
+     * @return the compiled prelude
+     */
+    public static PyCode compileLib(String libName, boolean useFileCache) {
+        String source = JAPY_GAME_LIB.equals(libName) ? getGameLib() : getDialogLib();
+        if (useFileCache) {
+            return loadOrCompile(libName, source);
+        }
+        return Py.compile_flags(source, getLibFileName(libName), CompileMode.exec, new CompilerFlags());
+    }
+
+    private static synchronized PyCode getCompiledLib(String libName) {
+        PyCode code = compiledLibs.get(libName);
+        if (code == null) {
+            String source = JAPY_GAME_LIB.equals(libName) ? getGameLib() : getDialogLib();
+            code = loadOrCompile(libName, source);
+            compiledLibs.put(libName, code);
+        }
+        return code;
     }
 
-    public static String addLibs(String pythonCode) {
-        numberOfRowsAddedLast = 0;
-        String jaPyGameLibImport = "import JaPyGame";
-        if (pythonCode.contains(jaPyGameLibImport)) {
-            pythonCode = getGameLib() + pythonCode.replace(jaPyGameLibImport, "");
-            numberOfRowsAddedLast += getGameLib().length() - getGameLib().replace("\n", "").length();
+    private static PyCode loadOrCompile(String libName, String source) {
+        String fileName = getLibFileName(libName);
+        String className = libName + "$py";
+        Path cacheFile = null;
+        try {
+            Path cacheDirectory = getCacheDirectory();
+            cacheFile = cacheDirectory.resolve(libName + "-" + Integer.toHexString(source.hashCode()) + "$py.class");
+            byte[] bytecode;
+            if (Files.exists(cacheFile, LinkOption.NOFOLLOW_LINKS)) {
+                checkPrivate(cacheFile);
+                bytecode = Files.readAllBytes(cacheFile);
+            } else {
+                bytecode = imp.compileSource(libName, new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), fileName);
+                Path tempFile = Files.createTempFile(cacheDirectory, libName, ".tmp");
+                Files.write(tempFile, bytecode);
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return BytecodeLoader.makeCode(className, bytecode, fileName);
+        } catch (Exception e) {
+            Log.warning(PythonLibConcatter.class, "Could not use compiled file cache for " + libName + ": " + e.getMessage());
+            if (cacheFile != null) {
+                cacheFile.toFile().delete();
+            }
+        }
+        return Py.compile_flags(source, fileName, CompileMode.exec, new CompilerFlags());
+    }
+
+    /**
+     * The compiled preludes are loaded as Java classes, so they are cached in
+     * the home directory of the user and only if no other user can write
+     * them.
+     */
+    private static Path getCacheDirectory() throws IOException {
+        Path directory = Paths.get(System.getProperty("user.home"), ".japy", "cache", JaPy.VERSION);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            FileAttribute<Set<PosixFilePermission>> ownerOnly = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+            if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                Files.createDirectories(directory.getParent());
+                Files.createDirectory(directory, ownerOnly);
+            }
+        } else {
+            Files.createDirectories(directory);
+        }
+        checkPrivate(directory);
+        return directory;
+    }
+
+    private static void checkPrivate(Path path) throws IOException {
+        if (Files.isSymbolicLink(path)) {
+            throw new IOException(path + " is a symbolic link");
+        }
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        if (!Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).getName().equals(System.getProperty("user.name"))) {
+            throw new IOException(path + " is not owned by " + System.getProperty("user.name"));
         }
-        String jaPyDialogImport = "import JaPyDialog";
-        if (pythonCode.contains(jaPyDialogImport)) {
-            pythonCode = getDialogLib() + pythonCode.replace(jaPyDialogImport, "");
-            numberOfRowsAddedLast += getDialogLib().length() - getDialogLib().replace("\n", "").length();
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+        if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+            throw new IOException(path + " can be written by other users");
         }
-        return pythonCode;
+    }
+
+    /**
+     * Get the import statements of all preludes, e.g. to load the used Java
+     * classes before the first script is run.
+     *
+     * @return the import statements, one per line
+     */
+    public static String getPreludeImports() {
+        Set<String> imports = new LinkedHashSet<>();
+        for (String lib : Arrays.asList(getGameLib(), getDialogLib())) {
+            for (String line : lib.split("\n")) {
+                if (line.startsWith("from ") || line.startsWith("import ")) {
+                    imports.add(line);
+                }
+            }
+        }
+        return String.join("\n", imports) + "\n";
     }
 
     private static String getGameLib() {
@@ -46,14 +251,65 @@ public class PythonLibConcatter {
                 + "from java.awt import Dimension\n"
                 + "from javax.swing import JFrame\n"
                 + "from javax.swing import BorderFactory\n"
+                + "from java.awt import GraphicsEnvironment\n"
+                + "from game import FrameBuffer\n"
+                + "from game import GameLoop\n"
+                + "from game import KeyboardInput\n"
+                + "from game import HeadlessGameSession\n"
                 + "\n"
                 + "SIZE = 100\n"
                 + "SPEED = 1000\n"
                 + "ITERATION_COUNT = 0\n"
                 + "GRAPHICS = None\n"
+                + "FRAME_BUFFER = None\n"
+                + "GAME_LOOP = None\n"
+                + "KEYBOARD = None\n"
                 + "PIXELS = []\n"
+                + "HEADLESS = HeadlessGameSession.current()\n"
+                + "if HEADLESS is not None:\n"
+                + "    __import__('random').seed(HEADLESS.getSeed())\n"
+                + "\n"
+                + "class HeadlessFrame(object):\n"
+                + "    # stands in for the window of a game without display\n"
+                + "    def add(self, component):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setTitle(self, title):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setUndecorated(self, undecorated):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setResizable(self, resizable):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setLocationRelativeTo(self, component):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setVisible(self, visible):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def setIconImage(self, image):\n"
+                + "        pass\n"
                 + "\n"
-                + "class Board(JPanel, KeyListener, ActionListener):\n"
+                + "    def setDefaultCloseOperation(self, operation):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def pack(self):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def repaint(self):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def dispose(self):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def isDisplayable(self):\n"
+                + "        return False\n"
+                + "\n"
+                + "GAME_FRAME = HeadlessFrame if HEADLESS is not None or GraphicsEnvironment.isHeadless() else JFrame\n"
+                + "\n"
+                + "class Board(JPanel):\n"
                 + "    game = None\n"
                 + "    def __init__(self, game):\n"
                 + "        super(Board, self).__init__()\n"
@@ -61,13 +317,24 @@ public class PythonLibConcatter {
                 + "        self.initUI()\n"
                 + "\n"
                 + "    def initUI(self):\n"
+                + "        global KEYBOARD\n"
                 + "        self.setBackground(Color.black)\n"
                 + "        self.setFocusable(True)\n"
-                + "        self.addKeyListener(self)\n"
+                + "        KEYBOARD = KeyboardInput()\n"
+                + "        self.addKeyListener(KEYBOARD)\n"
+                + "        self.addFocusListener(KEYBOARD)\n"
                 + "\n"
                 + "    def initGame(self):\n"
-                + "        self.timer = Timer(max(1, int(10000 / SPEED)), self)\n"
-                + "        self.timer.start()\n"
+                + "        global GAME_LOOP\n"
+                + "        GAME_LOOP = GameLoop(self, max(1, int(10000 / SPEED)), self.tick, self.renderFrame)\n"
+                + "        # older games stop and restart the loop as timer\n"
+                + "        self.timer = GAME_LOOP\n"
+                + "        if HEADLESS is None:\n"
+                + "            self.timer.start()\n"
+                + "        else:\n"
+                + "            # runs on a virtual clock as soon as the script is done\n"
+                + "            GAME_LOOP.setVirtualClock(True)\n"
+                + "            HEADLESS.setGameLoop(GAME_LOOP)\n"
                 + "\n"
                 + "    def initOnce(self):\n"
                 + "        self.game.initImpl()\n"
@@ -80,29 +347,30 @@ public class PythonLibConcatter {
                 + "        JPanel.paint(self, g)\n"
                 + "\n"
                 + "        scalingFactor = int(5 * 100 / SIZE)\n"
-                + "        for y in range(SIZE):\n"
-                + "            for x in range(SIZE):\n"
-                + "                g.setColor(PIXELS[x][y])\n"
-                + "                g.fillRect(x * scalingFactor, y * scalingFactor , scalingFactor, scalingFactor)\n"
+                + "        FRAME_BUFFER.paint(g, scalingFactor)\n"
                 + "\n"
                 + "        Toolkit.getDefaultToolkit().sync()\n"
                 + "        g.dispose()\n"
                 + "\n"
-                + "    def actionPerformed(self, e):\n"
+                + "    def tick(self):\n"
                 + "        global ITERATION_COUNT\n"
+                + "        self.processInput()\n"
                 + "        self.game.iterationImpl()\n"
                 + "        ITERATION_COUNT += 1\n"
-                + "        self.repaint()\n"
                 + "\n"
-                + "    def keyTyped(self, e):\n"
-                + "        key = e.getKeyCode()\n"
+                + "    def renderFrame(self):\n"
+                + "        if HEADLESS is None:\n"
+                + "            FRAME_BUFFER.repaintDirty(self, int(5 * 100 / SIZE))\n"
+                + "        else:\n"
+                + "            HEADLESS.frameRendered(FRAME_BUFFER)\n"
                 + "\n"
-                + "    def keyReleased(self, e):\n"
-                + "        key = e.getKeyCode()\n"
+                + "    def processInput(self):\n"
+                + "        for event in KEYBOARD.drain():\n"
+                + "            self.game.keyEvent(event)\n"
+                + "            if event.isPressed():\n"
+                + "                self.handleKey(event.getKeyCode())\n"
                 + "\n"
-                + "    def keyPressed(self, e):\n"
-                + "        key = e.getKeyCode()\n"
-                + "        \n"
+                + "    def handleKey(self, key):\n"
                 + "        if key == KeyEvent.VK_UP:\n"
                 + "            self.game.upImpl()\n"
                 + "            \n"
@@ -136,7 +404,7 @@ public class PythonLibConcatter {
                 + "        if key == KeyEvent.VK_D:\n"
                 + "            self.game.dImpl()\n"
                 + "\n"
-                + "class JaPyGame(JFrame):\n"
+                + "class JaPyGame(GAME_FRAME):\n"
                 + "    upLock = False\n"
                 + "    leftLock = False\n"
                 + "    downLock = False\n"
@@ -173,13 +441,12 @@ public class PythonLibConcatter {
                 + "        self.setVisible(True)\n"
                 + "        \n"
                 + "    def clear(self):\n"
+                + "        global FRAME_BUFFER\n"
                 + "        global PIXELS\n"
-                + "        PIXELS = []\n"
-                + "        for y in range(SIZE):\n"
-                + "            tmpList = []\n"
-                + "            for x in range(SIZE):\n"
-                + "                tmpList.append(Color(0, 0, 0))\n"
-                + "            PIXELS.append(tmpList)\n"
+                + "        if FRAME_BUFFER is None or FRAME_BUFFER.getWidth() != SIZE:\n"
+                + "            FRAME_BUFFER = FrameBuffer(SIZE, SIZE)\n"
+                + "            PIXELS = FRAME_BUFFER.getPixels()\n"
+                + "        FRAME_BUFFER.clear()\n"
                 + "        \n"
                 + "    def initImpl(self):\n"
                 + "        self.init()\n"
@@ -293,6 +560,19 @@ public class PythonLibConcatter {
                 + "        \n"
                 + "    def d(self):\n"
                 + "        print(\"D key pressed not implemented yet!\")\n"
+                + "\n"
+                + "    # called for every key event, in the tick it is handled\n"
+                + "    def keyEvent(self, event):\n"
+                + "        pass\n"
+                + "\n"
+                + "    def isKeyDown(self, key):\n"
+                + "        return KEYBOARD.isKeyDown(key)\n"
+                + "\n"
+                + "    def getKeyEvents(self):\n"
+                + "        return KEYBOARD.getEvents()\n"
+                + "\n"
+                + "    def getKeyHistory(self):\n"
+                + "        return KEYBOARD.getHistory()\n"
                 + "\n";
     }
 
@@ -0,0 +1,136 @@
+package python;
+
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.python.core.Py;
+import org.python.core.PyFrame;
+import org.python.core.PyObject;
+
+/**
+ * Output of the default Python system state. Python code called from Java
+ * threads that do not belong to a run, e.g. Swing listeners of a game on the
+ * EDT, prints to the default system state. The output is routed to the run
+ * whose globals the printing code uses. Output without a run goes to the
+ * System.out or System.err of the time of writing, which the editor replaces
+ * after the Python runtime was started.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonOutputRouter extends Writer {
+
+    private static PythonOutputRouter instance;
+    private static PythonOutputRouter errorInstance;
+
+    private final List<Route> routes = new ArrayList<>();
+    private final boolean error;
+
+    private PythonOutputRouter(boolean error) {
+        // hide constructor, singleton pattern
+        this.error = error;
+    }
+
+    /**
+     * Get the instance for sys.stdout, singleton pattern.
+     *
+     * @return an instance
+     */
+    public static synchronized PythonOutputRouter getInstance() {
+        if (instance == null) {
+            instance = new PythonOutputRouter(false);
+        }
+        return instance;
+    }
+
+    /**
+     * Get the instance for sys.stderr, singleton pattern.
+     *
+     * @return an instance
+     */
+    public static synchronized PythonOutputRouter getErrorInstance() {
+        if (errorInstance == null) {
+            errorInstance = new PythonOutputRouter(true);
+        }
+        return errorInstance;
+    }
+
+    /**
+     * Routes the output of Python code using the given globals to a writer.
+     * The route is removed as soon as the globals are garbage collected.
+     *
+     * @param globals the globals of a run
+     * @param out the writer of the run
+     */
+    public synchronized void register(PyObject globals, Writer out) {
+        removeStaleRoutes();
+        routes.add(new Route(globals, out));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        Writer out = findWriter();
+        if (out == null) {
+            printToStandardStream(new String(cbuf, off, len));
+            return;
+        }
+        try {
+            out.write(cbuf, off, len);
+        } catch (Exception e) {
+            printToStandardStream(new String(cbuf, off, len));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // the writers of the runs deliver on their own
+    }
+
+    @Override
+    public void close() {
+        // the writers of the runs are closed by the runs
+    }
+
+    private void printToStandardStream(String text) {
+        if (error) {
+            System.err.print(text);
+        } else {
+            System.out.print(text);
+        }
+    }
+
+    private synchronized Writer findWriter() {
+        PyFrame frame = Py.getThreadState().frame;
+        if (frame == null) {
+            return null;
+        }
+        for (Route route : routes) {
+            if (route.globals.get() == frame.f_globals) {
+                return route.out;
+            }
+        }
+        return null;
+    }
+
+    private void removeStaleRoutes() {
+        Iterator<Route> it = routes.iterator();
+        while (it.hasNext()) {
+            if (it.next().globals.get() == null) {
+                it.remove();
+            }
+        }
+    }
+
+    private static class Route {
+
+        private final WeakReference<PyObject> globals;
+        private final Writer out;
+
+        Route(PyObject globals, Writer out) {
+            this.globals = new WeakReference<>(globals);
+            this.out = out;
+        }
+    }
+}
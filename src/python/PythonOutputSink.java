@@ -0,0 +1,119 @@
+package python;
+
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer that receives the output of the Python interpreter and pushes only
+ * the new output to a callback, batched to at most one call per frame.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonOutputSink extends Writer {
+
+    public static final int FRAME_MILLIS = 16;
+
+    private static final ScheduledExecutorService deliveryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "PythonOutputSink");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final IPythonCallback callback;
+    private final Object deliveryLock = new Object();
+    private StringBuilder pendingOutput = new StringBuilder();
+    private boolean deliveryScheduled = false;
+    private volatile boolean detached = false;
+
+    public PythonOutputSink(IPythonCallback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        if (detached) {
+            return;
+        }
+        synchronized (this) {
+            pendingOutput.append(cbuf, off, len);
+        }
+        scheduleDelivery();
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        if (detached) {
+            return;
+        }
+        synchronized (this) {
+            pendingOutput.append(str, off, off + len);
+        }
+        scheduleDelivery();
+    }
+
+    /**
+     * Does nothing, the output is delivered once per frame anyway. Use
+     * {@link #deliver()} to push pending output immediately.
+     */
+    @Override
+    public void flush() {
+        // batched, see deliver()
+    }
+
+    @Override
+    public void close() {
+        deliver();
+    }
+
+    /**
+     * Detaches the sink from its callback, e.g. after the run got cancelled.
+     * All further output is dropped.
+     */
+    public void detach() {
+        detached = true;
+    }
+
+    /**
+     * Pushes the output written since the last delivery to the callback on the
+     * calling thread.
+     */
+    public void deliver() {
+        synchronized (deliveryLock) {
+            String chunk;
+            synchronized (this) {
+                deliveryScheduled = false;
+                if (pendingOutput.length() == 0) {
+                    return;
+                }
+                chunk = pendingOutput.toString();
+                pendingOutput = new StringBuilder();
+            }
+            if (detached) {
+                return;
+            }
+            callback.interpreterOutputAppended(chunk);
+        }
+    }
+
+    private void scheduleDelivery() {
+        synchronized (this) {
+            if (deliveryScheduled) {
+                return;
+            }
+            deliveryScheduled = true;
+        }
+        deliveryExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                deliver();
+            }
+        }, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,176 @@
+package python;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import preferences.Preferences;
+import view.util.LoadingAnimation;
+
+/**
+ * Schedules the runs of Python scripts. Several scripts run in parallel, each
+ * in its own interpreter, up to the configured number of parallel runs. Further
+ * runs wait in a bounded queue. Every run belongs to an owner, e.g. an editor
+ * tab, and an owner has at most one run at a time. The last run of an owner
+ * stays registered after it finished until it is cancelled or replaced, so
+ * that the windows it opened can still be closed.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonRunScheduler {
+
+    private static PythonRunScheduler instance;
+
+    private final int parallelism;
+    private final ThreadPoolExecutor executor;
+    private final Map<Object, PythonExecution> runsByOwner = new HashMap<>();
+    private int runningCount = 0;
+
+    private PythonRunScheduler() {
+        // hide constructor, singleton pattern
+        parallelism = Math.max(1, Preferences.getInstance().maxParallelRuns);
+        int maxPendingRuns = Math.max(1, Preferences.getInstance().maxPendingRuns);
+        AtomicInteger threadCount = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(maxPendingRuns), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PythonScript-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        }) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                runStarted();
+            }
+
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                runFinished();
+            }
+        };
+    }
+
+    /**
+     * Get an instance, singleton pattern.
+     *
+     * @return an instance
+     */
+    public static synchronized PythonRunScheduler getInstance() {
+        if (instance == null) {
+            instance = new PythonRunScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules a script. A run of the same owner that is still running or
+     * waiting gets cancelled first.
+     *
+     * @param owner the owner of the run, e.g. the editor of a tab
+     * @param sourceName the name errors use for the script, e.g. the title
+     * of the tab
+     * @param pythonString the script
+     * @param callback the callback for output and errors
+     * @param errorWriter the writer for sys.stderr of the script, e.g. the
+     * console of the tab, null for System.err
+     * @return the scheduled run, null if the queue is full
+     */
+    public PythonExecution submit(Object owner, String sourceName, String pythonString, IPythonCallback callback, Writer errorWriter) {
+        cancel(owner);
+        long timeoutMillis = Preferences.getInstance().scriptTimeoutSeconds * 1000L;
+        long cpuTimeMillis = Preferences.getInstance().scriptCpuTimeSeconds * 1000L;
+        long allocationLimitBytes = Preferences.getInstance().scriptAllocationBudgetMegabytes * 1024L * 1024L;
+        PythonExecution execution = new PythonExecution(pythonString, callback, timeoutMillis, cpuTimeMillis, allocationLimitBytes);
+        execution.setSourceName(sourceName);
+        if (errorWriter != null) {
+            execution.setErrorWriter(errorWriter);
+        }
+        try {
+            synchronized (this) {
+                boolean queued = runningCount + executor.getQueue().size() >= parallelism;
+                executor.execute(execution);
+                runsByOwner.put(owner, execution);
+                // the run cannot start before this block is left, so it is told it waits before it is told it started
+                if (queued) {
+                    callback.executionQueued();
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            callback.alreadyRunning();
+            execution = null;
+        }
+        LoadingAnimation.killLoadingAnim();
+        return execution;
+    }
+
+    /**
+     * Cancels the run of an owner, no matter if it is running, waiting or
+     * finished. The windows opened by the run are disposed.
+     *
+     * @param owner the owner of the run
+     */
+    public void cancel(Object owner) {
+        PythonExecution execution;
+        synchronized (this) {
+            execution = runsByOwner.remove(owner);
+            if (execution != null) {
+                executor.remove(execution);
+            }
+        }
+        if (execution != null) {
+            execution.cancel();
+        }
+    }
+
+    /**
+     * Cancels all runs, running and waiting ones.
+     */
+    public void cancelAll() {
+        List<Object> owners;
+        synchronized (this) {
+            owners = new ArrayList<>(runsByOwner.keySet());
+        }
+        for (Object owner : owners) {
+            cancel(owner);
+        }
+    }
+
+    public synchronized boolean isRunning(Object owner) {
+        PythonExecution execution = runsByOwner.get(owner);
+        return execution != null && !execution.isFinished();
+    }
+
+    public synchronized int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * Get the runs waiting for a free slot, in the order they will start.
+     *
+     * @return the waiting runs
+     */
+    public synchronized List<PythonExecution> getPendingRuns() {
+        List<PythonExecution> retList = new ArrayList<>();
+        for (Runnable r : executor.getQueue()) {
+            retList.add((PythonExecution) r);
+        }
+        return retList;
+    }
+
+    private synchronized void runStarted() {
+        runningCount++;
+    }
+
+    private synchronized void runFinished() {
+        runningCount--;
+    }
+}
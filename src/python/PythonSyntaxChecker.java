@@ -0,0 +1,268 @@
+package python;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.ParserFacade;
+import org.python.core.PyException;
+import org.python.core.PyObject;
+
+/**
+ * Checks the syntax of Python scripts in the background, without executing
+ * them. Checks are debounced per owner, a check that got superseded by a newer
+ * one of the same owner is not reported.
+ *
+ * The script is split into its top level blocks, e.g. function and class
+ * definitions, and the parse result of every block is cached. On typing only
+ * the changed block has to be parsed again.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonSyntaxChecker {
+
+    public static final int DEBOUNCE_MILLIS = 300;
+
+    private static final int MAX_CACHED_BLOCKS = 5000;
+    private static final String FILE_NAME = "<script>";
+    private static final Problem NO_PROBLEM = new Problem(null, 0, 0);
+
+    private static PythonSyntaxChecker instance;
+
+    private final ScheduledExecutorService checkExecutor;
+    private final Map<Object, ScheduledFuture<?>> pendingChecks = new HashMap<>();
+    private final Map<Object, Long> latestChecks = new HashMap<>();
+    private long checkCounter = 0;
+    // parse results by block text, least recently used blocks are dropped first
+    private final Map<String, Problem> blockCache = new LinkedHashMap<String, Problem>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Problem> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+
+    private PythonSyntaxChecker() {
+        // hide constructor, singleton pattern
+        checkExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PythonSyntaxChecker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Get an instance, singleton pattern.
+     *
+     * @return an instance
+     */
+    public static synchronized PythonSyntaxChecker getInstance() {
+        if (instance == null) {
+            instance = new PythonSyntaxChecker();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks a script in the background after {@link #DEBOUNCE_MILLIS}. A
+     * pending check of the same owner is cancelled, a running one is not
+     * reported any more.
+     *
+     * @param owner the owner of the check, e.g. an editor
+     * @param pythonString the script
+     * @param callback the callback for the result, called on the checker
+     * thread
+     */
+    public synchronized void check(Object owner, String pythonString, IPythonSyntaxCheckerCallback callback) {
+        cancel(owner);
+        long check = ++checkCounter;
+        latestChecks.put(owner, check);
+        pendingChecks.put(owner, checkExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!isLatestCheck(owner, check)) {
+                    return;
+                }
+                try {
+                    Problem problem = checkNow(pythonString);
+                    if (!isLatestCheck(owner, check)) {
+                        return;
+                    }
+                    if (problem == null) {
+                        callback.success();
+                    } else {
+                        callback.syntaxError(problem.getMessage(), problem.getLine(), problem.getColumn());
+                    }
+                } catch (Exception e) {
+                    if (isLatestCheck(owner, check)) {
+                        callback.otherError(String.valueOf(e.getMessage()));
+                    }
+                }
+            }
+        }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Cancels the pending check of an owner.
+     *
+     * @param owner the owner of the check
+     */
+    public synchronized void cancel(Object owner) {
+        ScheduledFuture<?> pendingCheck = pendingChecks.remove(owner);
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+        }
+        latestChecks.remove(owner);
+    }
+
+    /**
+     * Checks a script on the calling thread.
+     *
+     * @param pythonString the script
+     * @return the first syntax error, null if there is none
+     */
+    public Problem checkNow(String pythonString) {
+        PythonInterpreterPool.initializeRuntime();
+        synchronized (blockCache) {
+            for (String block : splitIntoBlocks(pythonString)) {
+                Problem problem = blockCache.get(block);
+                if (problem == null) {
+                    problem = parse(block);
+                    blockCache.put(block, problem);
+                }
+                if (problem != NO_PROBLEM) {
+                    // the split may be wrong, e.g. inside a multi line string, only the whole script knows for sure
+                    Problem wholeScriptProblem = parse(pythonString);
+                    return wholeScriptProblem != NO_PROBLEM ? wholeScriptProblem : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Problem parse(String pythonString) {
+        try {
+            ParserFacade.parse(pythonString, CompileMode.exec, FILE_NAME, new CompilerFlags());
+            return NO_PROBLEM;
+        } catch (PyException e) {
+            // the value of a syntax error is (message, (filename, line, column, text))
+            try {
+                PyObject position = e.value.__getitem__(1);
+                return new Problem(e.value.__getitem__(0).toString(), position.__getitem__(1).asInt(), position.__getitem__(2).asInt());
+            } catch (Exception ex) {
+                return new Problem(String.valueOf(e.value), 1, 0);
+            }
+        }
+    }
+
+    private synchronized boolean isLatestCheck(Object owner, long check) {
+        Long latestCheck = latestChecks.get(owner);
+        return latestCheck != null && latestCheck == check;
+    }
+
+    /**
+     * Splits a script into its top level blocks. A block starts at a line
+     * without indentation, unless the line continues the statement before,
+     * e.g. an else or a line after a decorator.
+     */
+    private static List<String> splitIntoBlocks(String pythonString) {
+        List<String> blocks = new ArrayList<>();
+        StringBuilder blockText = new StringBuilder();
+        boolean inMultiLineString = false;
+        boolean continuesStatement = false;
+        int start = 0;
+        while (start < pythonString.length()) {
+            int end = pythonString.indexOf('\n', start);
+            end = end < 0 ? pythonString.length() : end + 1;
+            String line = pythonString.substring(start, end);
+            if (!inMultiLineString && !continuesStatement && startsBlock(line) && blockText.length() > 0) {
+                blocks.add(blockText.toString());
+                blockText = new StringBuilder();
+            }
+            blockText.append(line);
+            if (countOccurrences(line, "\"\"\"") % 2 == 1 || countOccurrences(line, "'''") % 2 == 1) {
+                inMultiLineString = !inMultiLineString;
+            }
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                continuesStatement = trimmed.endsWith("\\") || trimmed.startsWith("@");
+            }
+            start = end;
+        }
+        if (blockText.length() > 0) {
+            blocks.add(blockText.toString());
+        }
+        return blocks;
+    }
+
+    private static boolean startsBlock(String line) {
+        if (line.isEmpty() || Character.isWhitespace(line.charAt(0)) || line.startsWith("#")) {
+            return false;
+        }
+        for (String continuation : new String[]{"else", "elif", "except", "finally", ")", "]", "}"}) {
+            if (line.startsWith(continuation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countOccurrences(String s, String part) {
+        int count = 0;
+        int index = s.indexOf(part);
+        while (index >= 0) {
+            count++;
+            index = s.indexOf(part, index + part.length());
+        }
+        return count;
+    }
+
+    /**
+     * A syntax error found by the checker.
+     */
+    public static class Problem {
+
+        private final String message;
+        private final int line;
+        private final int column;
+
+        Problem(String message, int line, int column) {
+            this.message = message;
+            this.line = line;
+            this.column = column;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Get the line of the error.
+         *
+         * @return the line, starting at 1
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * Get the column of the error.
+         *
+         * @return the column, starting at 0
+         */
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package python;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the lines of the code a run executes to the lines of the tabs they
+ * come from, so that errors point to what the user wrote. Every run gets its
+ * own map, which is never changed after it is built, so that parallel runs do
+ * not interfere. Lines are looked up with a binary search over the segments of
+ * a file.
+ *
+ * The maps of the last runs stay registered by their generated file names, so
+ * that tracebacks printed later, e.g. by game code running after the script,
+ * can still be translated.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class SourceMap {
+
+    private static final int MAX_REGISTERED_MAPS = 64;
+
+    private static final String LINE_INFIX = ", line ";
+
+    private static final Map<String, SourceMap> registeredMaps = new LinkedHashMap<String, SourceMap>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SourceMap> eldest) {
+            return size() > MAX_REGISTERED_MAPS;
+        }
+    };
+
+    private final Map<String, FileSegments> files;
+
+    private SourceMap(Map<String, FileSegments> files) {
+        this.files = files;
+    }
+
+    /**
+     * Registers a map for all its generated files.
+     *
+     * @param sourceMap the map
+     */
+    public static void register(SourceMap sourceMap) {
+        synchronized (registeredMaps) {
+            for (String generatedFile : sourceMap.files.keySet()) {
+                registeredMaps.put(generatedFile, sourceMap);
+            }
+        }
+    }
+
+    /**
+     * Get the registered map of a generated file.
+     *
+     * @param generatedFile the file name the code was compiled with
+     * @return the map, null if none is registered
+     */
+    public static SourceMap forGeneratedFile(String generatedFile) {
+        synchronized (registeredMaps) {
+            return registeredMaps.get(generatedFile);
+        }
+    }
+
+    /**
+     * Looks up the source of a generated line.
+     *
+     * @param generatedFile the file name the code was compiled with
+     * @param generatedLine the line in the generated code, starting at 1
+     * @return the source position, null if the line belongs to no tab, e.g. to
+     * a prelude
+     */
+    public Position lookup(String generatedFile, int generatedLine) {
+        FileSegments segments = files.get(generatedFile);
+        return segments == null ? null : segments.lookup(generatedLine);
+    }
+
+    /**
+     * Translates the file names and lines of a traceback or error message,
+     * e.g. File "&lt;run-3&gt;", line 12 becomes File "Main", line 12, and
+     * (&lt;run-3&gt;, line 1) becomes (Main, line 1). Text the map does not know
+     * stays as it is.
+     *
+     * @param text the text
+     * @return the translated text
+     */
+    public String translate(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        int copied = 0;
+        int infix = text.indexOf(LINE_INFIX);
+        while (infix >= 0) {
+            int numberStart = infix + LINE_INFIX.length();
+            int numberEnd = numberStart;
+            while (numberEnd < text.length() && numberEnd - numberStart < 9 && Character.isDigit(text.charAt(numberEnd))) {
+                numberEnd++;
+            }
+            // the file name is quoted in tracebacks and in parentheses in syntax errors
+            int nameEnd = infix > 0 && text.charAt(infix - 1) == '"' ? infix - 1 : infix;
+            int nameStart = (nameEnd < infix ? text.lastIndexOf('"', nameEnd - 1) : text.lastIndexOf('(', infix)) + 1;
+            if (numberEnd > numberStart && nameStart > copied) {
+                Position position = lookup(text.substring(nameStart, nameEnd), Integer.parseInt(text.substring(numberStart, numberEnd)));
+                if (position != null) {
+                    sb.append(text, copied, nameStart).append(position.getSourceName()).append(text, nameEnd, numberStart).append(position.getLine());
+                    copied = numberEnd;
+                }
+            }
+            infix = text.indexOf(LINE_INFIX, Math.max(numberEnd, infix + 1));
+        }
+        return sb.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * Builds a source map while the code of a run is assembled.
+     */
+    public static class Builder {
+
+        private final Map<String, List<int[]>> segments = new HashMap<>();
+        private final Map<String, List<String>> sourceNames = new HashMap<>();
+
+        /**
+         * Adds lines of generated code that come from a tab.
+         *
+         * @param generatedFile the file name the code is compiled with
+         * @param generatedStartLine the first generated line, starting at 1
+         * @param lineCount the number of lines
+         * @param sourceName the name of the tab, null if the lines do not come
+         * from a tab, e.g. a prelude
+         * @param sourceStartLine the line in the tab of the first generated
+         * line
+         * @return this builder
+         */
+        public Builder addSegment(String generatedFile, int generatedStartLine, int lineCount, String sourceName, int sourceStartLine) {
+            if (!segments.containsKey(generatedFile)) {
+                segments.put(generatedFile, new ArrayList<int[]>());
+                sourceNames.put(generatedFile, new ArrayList<String>());
+            }
+            segments.get(generatedFile).add(new int[]{generatedStartLine, lineCount, sourceStartLine});
+            sourceNames.get(generatedFile).add(sourceName);
+            return this;
+        }
+
+        public SourceMap build() {
+            Map<String, FileSegments> files = new HashMap<>();
+            for (Map.Entry<String, List<int[]>> entry : segments.entrySet()) {
+                files.put(entry.getKey(), new FileSegments(entry.getValue(), sourceNames.get(entry.getKey())));
+            }
+            return new SourceMap(files);
+        }
+    }
+
+    /**
+     * The segments of one generated file, sorted by their first line.
+     */
+    private static class FileSegments {
+
+        private final int[] generatedStartLines;
+        private final int[] lineCounts;
+        private final int[] sourceStartLines;
+        private final String[] sourceNames;
+
+        FileSegments(List<int[]> segments, List<String> names) {
+            Integer[] order = new Integer[segments.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Integer.compare(segments.get(a)[0], segments.get(b)[0]);
+                }
+            });
+            generatedStartLines = new int[order.length];
+            lineCounts = new int[order.length];
+            sourceStartLines = new int[order.length];
+            sourceNames = new String[order.length];
+            for (int i = 0; i < order.length; i++) {
+                int[] segment = segments.get(order[i]);
+                generatedStartLines[i] = segment[0];
+                lineCounts[i] = segment[1];
+                sourceStartLines[i] = segment[2];
+                sourceNames[i] = names.get(order[i]);
+            }
+        }
+
+        Position lookup(int generatedLine) {
+            int index = Arrays.binarySearch(generatedStartLines, generatedLine);
+            if (index < 0) {
+                // the segment starting before the line
+                index = -index - 2;
+            }
+            if (index < 0 || generatedLine >= generatedStartLines[index] + lineCounts[index] || sourceNames[index] == null) {
+                return null;
+            }
+            return new Position(sourceNames[index], sourceStartLines[index] + generatedLine - generatedStartLines[index]);
+        }
+    }
+
+    /**
+     * A line in a tab.
+     */
+    public static class Position {
+
+        private final String sourceName;
+        private final int line;
+
+        Position(String sourceName, int line) {
+            this.sourceName = sourceName;
+            this.line = line;
+        }
+
+        public String getSourceName() {
+            return sourceName;
+        }
+
+        /**
+         * Get the line in the tab.
+         *
+         * @return the line, starting at 1
+         */
+        public int getLine() {
+            return line;
+        }
+    }
+}
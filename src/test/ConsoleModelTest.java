@@ -0,0 +1,113 @@
+package test;
+
+import view.util.ConsoleModel;
+
+/**
+ * Test class for {@link view.util.ConsoleModel}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ConsoleModelTest {
+
+    public boolean appendTest() {
+        // prepare data
+        ConsoleModel model = new ConsoleModel(100, 10000);
+
+        // execute tests
+        model.append("first\r\nsec");
+        model.append("ond\nthird");
+
+        // check
+        boolean success = true;
+        success &= model.getLineCount() == 3;
+        success &= model.getLine(0).equals("first");
+        success &= model.getLine(1).equals("second");
+        success &= model.getLine(2).equals("third");
+        success &= model.getText().equals("first\nsecond\nthird");
+        success &= model.getDroppedLineCount() == 0;
+
+        // return result
+        return success;
+    }
+
+    public boolean lineCapacityTest() {
+        // prepare data
+        ConsoleModel model = new ConsoleModel(3, 10000);
+
+        // execute tests
+        int dropped = model.append("1\n2\n3\n4\n5");
+
+        // check
+        boolean success = true;
+        success &= dropped == 2;
+        success &= model.getDroppedLineCount() == 2;
+        success &= model.getLineCount() == 3;
+        success &= model.getText().equals("3\n4\n5");
+
+        // return result
+        return success;
+    }
+
+    public boolean charCapacityTest() {
+        // prepare data
+        ConsoleModel model = new ConsoleModel(100, 10);
+
+        // execute tests
+        model.append("aaaa\nbbbb\ncccc\n");
+
+        // check
+        boolean success = true;
+        success &= model.getCharCount() <= 10;
+        success &= model.getDroppedLineCount() == 1;
+        success &= model.getText().equals("bbbb\ncccc\n");
+
+        // return result
+        return success;
+    }
+
+    public boolean clearTest() {
+        // prepare data
+        ConsoleModel model = new ConsoleModel(2, 10000);
+        model.append("1\n2\n3\n");
+
+        // execute tests
+        model.clear();
+        model.append("new");
+
+        // check
+        boolean success = true;
+        success &= model.getLineCount() == 1;
+        success &= model.getText().equals("new");
+        success &= model.getCharCount() == 3;
+
+        // return result
+        return success;
+    }
+
+    public boolean longLineTest() {
+        // prepare data
+        ConsoleModel model = new ConsoleModel(100, 3 * ConsoleModel.MAX_LINE_LENGTH);
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            chunk.append('x');
+        }
+
+        // execute tests
+        for (int i = 0; i < 100; i++) {
+            model.append(chunk.toString());
+        }
+        model.append("y\nz");
+
+        // check
+        boolean success = true;
+        success &= model.getCharCount() <= 3 * ConsoleModel.MAX_LINE_LENGTH;
+        success &= model.getMaxLineLength() == ConsoleModel.MAX_LINE_LENGTH;
+        success &= model.getLine(model.getLineCount() - 2).endsWith("xy");
+        success &= model.getLine(model.getLineCount() - 1).equals("z");
+        success &= model.getText(0, 2, 1, 3).length() == ConsoleModel.MAX_LINE_LENGTH - 2 + 1 + 3;
+
+        // return result
+        return success;
+    }
+}
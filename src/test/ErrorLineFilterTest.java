@@ -0,0 +1,41 @@
+package test;
+
+import java.util.Arrays;
+import view.util.ErrorLineFilter;
+
+/**
+ * Test class for {@link view.util.ErrorLineFilter}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ErrorLineFilterTest {
+
+    public boolean filterTest() {
+        // prepare data
+        ErrorLineFilter lineFilter = new ErrorLineFilter(Arrays.asList("JaPyGame.py"));
+        StringBuilder out = new StringBuilder();
+
+        // execute tests
+        boolean header = lineFilter.appendFiltered("Traceback (most recent call last):\r", out);
+        boolean scriptLine = lineFilter.appendFiltered("  File \"<string>\", line 7, in iteration", out);
+        boolean preludeLine = lineFilter.appendFiltered("  File \"JaPyGame.py\", line 120, in tick", out);
+        boolean javaLine = lineFilter.appendFiltered("\tat java.base/java.lang.Thread.run(Thread.java:833)", out);
+        boolean jythonLine = lineFilter.appendFiltered("\tat org.python.core.PyObject.__call__(PyObject.java:396)", out);
+        boolean moreLine = lineFilter.appendFiltered("\t... 12 more", out);
+        boolean javaException = lineFilter.appendFiltered("Caused by: java.lang.NullPointerException", out);
+        boolean userLine = lineFilter.appendFiltered("javascript is not java (at least not here)", out);
+        boolean exception = lineFilter.appendFiltered("Exception in thread \"AWT-EventQueue-0\" ZeroDivisionError: integer division by zero", out);
+        boolean emptyLine = lineFilter.appendFiltered("   ", out);
+
+        // check
+        boolean success = true;
+        success &= !header && scriptLine && !preludeLine && !javaLine && exception && !emptyLine;
+        success &= !jythonLine && !moreLine && !javaException && userLine;
+        success &= out.toString().equals("  File \"<string>\", line 7, in iteration\njavascript is not java (at least not here)\n"
+                + "ZeroDivisionError: integer division by zero\n");
+
+        // return result
+        return success;
+    }
+}
@@ -0,0 +1,98 @@
+package test;
+
+import game.FrameBuffer;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Test class for {@link game.FrameBuffer}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class FrameBufferTest {
+
+    public boolean pixelsAdapterTest() {
+        // prepare data
+        FrameBuffer frameBuffer = new FrameBuffer(4, 3);
+
+        // execute tests
+        frameBuffer.getPixels().get(2).set(1, Color.RED);
+        frameBuffer.setPixel(3, 2, Color.BLUE);
+
+        // check
+        boolean success = true;
+        success &= frameBuffer.getPixels().size() == 4;
+        success &= frameBuffer.getPixels().get(0).size() == 3;
+        success &= frameBuffer.getPixel(2, 1).equals(Color.RED);
+        success &= frameBuffer.getPixels().get(3).get(2).equals(Color.BLUE);
+        success &= frameBuffer.getPixelRgb(0, 0) == 0;
+
+        // return result
+        return success;
+    }
+
+    public boolean fillAndClearTest() {
+        // prepare data
+        FrameBuffer frameBuffer = new FrameBuffer(5, 5);
+
+        // execute tests
+        frameBuffer.fill(Color.GREEN);
+        boolean filled = frameBuffer.getPixel(4, 4).equals(Color.GREEN);
+        frameBuffer.clear();
+
+        // check
+        boolean success = true;
+        success &= filled;
+        success &= frameBuffer.getPixel(4, 4).equals(Color.BLACK);
+
+        // return result
+        return success;
+    }
+
+    public boolean dirtyRegionTest() {
+        // prepare data
+        FrameBuffer frameBuffer = new FrameBuffer(100, 100);
+        frameBuffer.takeDirtyRegions();
+
+        // execute tests
+        frameBuffer.setPixel(1, 1, Color.RED);
+        frameBuffer.setPixel(2, 2, Color.RED);
+        frameBuffer.setPixel(50, 99, Color.RED);
+        frameBuffer.setPixel(60, 60, Color.BLACK);
+        List<Rectangle> regions = frameBuffer.takeDirtyRegions();
+
+        // check
+        boolean success = true;
+        success &= regions.size() == 2;
+        success &= regions.contains(new Rectangle(0, 0, FrameBuffer.TILE_SIZE, FrameBuffer.TILE_SIZE));
+        success &= regions.contains(new Rectangle(48, 96, FrameBuffer.TILE_SIZE, FrameBuffer.TILE_SIZE));
+        success &= frameBuffer.takeDirtyRegions().isEmpty();
+
+        // return result
+        return success;
+    }
+
+    public boolean checksumTest() {
+        // prepare data
+        FrameBuffer frameBuffer = new FrameBuffer(6, 6);
+        FrameBuffer otherFrameBuffer = new FrameBuffer(6, 6);
+
+        // execute tests
+        frameBuffer.setPixel(1, 2, Color.ORANGE);
+        otherFrameBuffer.setPixel(1, 2, Color.ORANGE);
+        long checksum = frameBuffer.getChecksum();
+        boolean sameForSamePixels = checksum == otherFrameBuffer.getChecksum();
+        otherFrameBuffer.setPixel(2, 1, Color.ORANGE);
+
+        // check
+        boolean success = true;
+        success &= sameForSamePixels;
+        success &= checksum != otherFrameBuffer.getChecksum();
+        success &= checksum == frameBuffer.getChecksum();
+
+        // return result
+        return success;
+    }
+}
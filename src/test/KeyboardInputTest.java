@@ -0,0 +1,49 @@
+package test;
+
+import game.KeyboardInput;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyEvent;
+import java.util.List;
+import javax.swing.JPanel;
+
+/**
+ * Test class for {@link game.KeyboardInput}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class KeyboardInputTest {
+
+    public boolean drainTest() {
+        // prepare data
+        JPanel source = new JPanel();
+        KeyboardInput keyboardInput = new KeyboardInput();
+
+        // execute tests
+        keyboardInput.keyPressed(new KeyEvent(source, KeyEvent.KEY_PRESSED, 1, 0, KeyEvent.VK_UP, KeyEvent.CHAR_UNDEFINED));
+        keyboardInput.keyPressed(new KeyEvent(source, KeyEvent.KEY_PRESSED, 2, 0, KeyEvent.VK_Q, 'q'));
+        keyboardInput.keyReleased(new KeyEvent(source, KeyEvent.KEY_RELEASED, 3, 0, KeyEvent.VK_UP, KeyEvent.CHAR_UNDEFINED));
+        List<KeyboardInput.Event> firstTick = keyboardInput.drain();
+        boolean qDown = keyboardInput.isKeyDown(KeyEvent.VK_Q);
+        boolean upDown = keyboardInput.isKeyDown(KeyEvent.VK_UP);
+        keyboardInput.keyPressed(new KeyEvent(source, KeyEvent.KEY_PRESSED, 4, 0, KeyEvent.VK_Q, 'q'));
+        keyboardInput.focusLost(new FocusEvent(source, FocusEvent.FOCUS_LOST));
+        List<KeyboardInput.Event> secondTick = keyboardInput.drain();
+
+        // check
+        boolean success = true;
+        success &= firstTick.size() == 3;
+        success &= firstTick.get(0).isPressed() && firstTick.get(0).getKeyCode() == KeyEvent.VK_UP;
+        success &= firstTick.get(1).getKeyCode() == KeyEvent.VK_Q;
+        success &= firstTick.get(2).isReleased() && firstTick.get(2).getTick() == 1;
+        success &= qDown && !upDown;
+        success &= secondTick.size() == 2;
+        success &= secondTick.get(0).isRepeat();
+        success &= secondTick.get(1).isReleased() && secondTick.get(1).getKeyCode() == KeyEvent.VK_Q;
+        success &= !keyboardInput.isKeyDown(KeyEvent.VK_Q);
+        success &= keyboardInput.getHistory().size() == 5;
+
+        // return result
+        return success;
+    }
+}
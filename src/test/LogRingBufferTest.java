@@ -0,0 +1,47 @@
+package test;
+
+import console.Log;
+import console.LogEvent;
+import console.LogRingBuffer;
+
+/**
+ * Test class for {@link console.LogRingBuffer}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class LogRingBufferTest {
+
+    public boolean offerPollTest() {
+        // prepare data
+        LogRingBuffer buffer = new LogRingBuffer(3);
+
+        // execute tests
+        int capacity = buffer.getCapacity();
+        boolean allOffered = true;
+        for (int i = 0; i < capacity; i++) {
+            allOffered &= buffer.offer(new LogEvent(Log.LOG_LEVEL_INFO, i, "source", "message " + i, "thread"));
+        }
+        boolean fullOffered = buffer.offer(new LogEvent(Log.LOG_LEVEL_INFO, 0, "source", "too much", "thread"));
+        LogEvent first = buffer.poll();
+        boolean offeredAfterPoll = buffer.offer(new LogEvent(Log.LOG_LEVEL_INFO, 4, "source", "message 4", "thread"));
+        int polled = 0;
+        LogEvent last = null;
+        LogEvent event;
+        while ((event = buffer.poll()) != null) {
+            last = event;
+            polled++;
+        }
+
+        // check
+        boolean success = true;
+        success &= capacity == 4;
+        success &= allOffered && !fullOffered && offeredAfterPoll;
+        success &= first.getMessage().equals("message 0");
+        success &= polled == 4 && last.getMessage().equals("message 4");
+        success &= buffer.getOfferedCount() == 5 && buffer.getPolledCount() == 5;
+
+        // return result
+        return success;
+    }
+}
@@ -0,0 +1,49 @@
+package test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import model.Project;
+import model.ProjectIndex;
+import model.ProjectJsonConverter;
+
+/**
+ * Test class for {@link model.ProjectIndex}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectIndexTest {
+
+    public boolean readFileTest() throws Exception {
+        // prepare data
+        List<String> titles = Arrays.asList("äöü \"1\"", "Tab\t2", "€ 3");
+        List<String> files = Arrays.asList("print('äöü')\n#   \\ \"", "", "x = '€'\r\n" + "y" + new String(new char[70000]).replace('\0', 'ß'));
+        Project project = new Project(titles, files, "0.0.1", new Date());
+        File file = File.createTempFile("japy-test", ".japy");
+        file.deleteOnExit();
+        ProjectJsonConverter.getInstance().writeProject(project, file);
+
+        // execute tests
+        ProjectIndex index = ProjectIndex.read(file);
+        String[] read = new String[index.getTabCount()];
+        for (int i = read.length - 1; i >= 0; i--) {
+            read[i] = index.readFile(i);
+        }
+        boolean validBeforeChange = index.isValid();
+        file.setLastModified(file.lastModified() - 10000);
+        boolean validAfterChange = index.isValid();
+        file.delete();
+
+        // check
+        boolean success = true;
+        success &= index.getTitles().equals(titles);
+        success &= index.getJaPyVersion().equals("0.0.1");
+        success &= Arrays.asList(read).equals(files);
+        success &= validBeforeChange && !validAfterChange;
+
+        // return result
+        return success;
+    }
+}
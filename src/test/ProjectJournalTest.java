@@ -0,0 +1,169 @@
+package test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Future;
+import model.Project;
+import model.ProjectIndex;
+import model.ProjectJournal;
+import model.ProjectJsonConverter;
+import model.SavedTab;
+
+/**
+ * Test class for {@link model.ProjectJournal}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ProjectJournalTest {
+
+    public boolean recoverTest() throws Exception {
+        // prepare data
+        List<String> titles = Arrays.asList("Tab 1", "Tab 2", "Tab 3");
+        List<String> files = Arrays.asList("print(1)\n", "x = 'äöü'\n", "");
+        File file = File.createTempFile("japy-test", ".japy");
+        file.deleteOnExit();
+        ProjectJsonConverter.getInstance().writeProject(new Project(titles, files, "0.0.1", new Date()), file);
+
+        // execute tests
+        ProjectJournal journal = ProjectJournal.open(file);
+        boolean changesBeforeEdits = ProjectJournal.hasChanges(file);
+        journal.insert(1, 9, "\ny = '€'");
+        journal.remove(0, 6, 1);
+        journal.insert(0, 6, "2");
+        journal.addTab(3, "Tab 4", "pass\n");
+        journal.closeTab(2);
+        journal.flush();
+        // a record that was not written completely when JaPy crashed, its length is garbage
+        try (FileOutputStream out = new FileOutputStream(ProjectJournal.getJournalFile(file), true)) {
+            out.write(new byte[]{0x7f, -1, -1, 0, 1, 0});
+        }
+        boolean changesAfterEdits = ProjectJournal.hasChanges(file);
+        Project recovered = ProjectJournal.recover(file);
+        List<String> recoveredFiles = Arrays.asList(recovered.getFiles().toArray(new String[0]));
+
+        ProjectIndex index = journal.compact(recovered, false, null).get();
+        boolean changesAfterCompaction = ProjectJournal.hasChanges(file);
+        journal.insert(2, 0, "# ");
+        journal.close();
+        Project recoveredAfterCompaction = ProjectJournal.recover(file);
+        ProjectJournal.getJournalFile(file).delete();
+        file.delete();
+
+        // check
+        boolean success = true;
+        success &= !changesBeforeEdits && changesAfterEdits && !changesAfterCompaction;
+        success &= recovered.getTitles().equals(Arrays.asList("Tab 1", "Tab 2", "Tab 4"));
+        success &= recoveredFiles.equals(Arrays.asList("print(2)\n", "x = 'äöü'\ny = '€'\n", "pass\n"));
+        success &= index.getTabCount() == 3;
+        success &= recoveredAfterCompaction.getFiles().get(2).equals("# pass\n");
+
+        // return result
+        return success;
+    }
+
+    public boolean coalescedSaveTest() throws Exception {
+        // prepare data
+        File file = File.createTempFile("japy-test", ".japy");
+        file.deleteOnExit();
+        ProjectJournal journal = ProjectJournal.open(file);
+        Project[] projects = new Project[5];
+        for (int i = 0; i < projects.length; i++) {
+            projects[i] = new Project(Arrays.asList("Tab"), Arrays.asList("print(" + i + ")\n"), "0.0.1", new Date());
+        }
+
+        // execute tests
+        Future<?>[] saves = new Future<?>[projects.length];
+        for (int i = 0; i < projects.length; i++) {
+            journal.insert(0, 0, "#");
+            saves[i] = journal.compact(projects[i], false, null);
+        }
+        boolean saved = true;
+        for (Future<?> save : saves) {
+            saved &= save.get() != null;
+        }
+        boolean changesAfterSaves = ProjectJournal.hasChanges(file);
+        journal.close();
+        Project project = ProjectJsonConverter.getInstance().readProject(file);
+        boolean journalDeleted = !ProjectJournal.getJournalFile(file).exists();
+        file.delete();
+
+        // check
+        boolean success = true;
+        success &= saved && !changesAfterSaves && journalDeleted;
+        success &= project.equals(projects[projects.length - 1]);
+
+        // return result
+        return success;
+    }
+
+    public boolean unloadedTabsSaveTest() throws Exception {
+        // prepare data
+        List<String> titles = Arrays.asList("Tab 1", "Tab 2");
+        List<String> files = Arrays.asList("print(1)\n", "print(2)\n");
+        File file = File.createTempFile("japy-test", ".japy");
+        file.deleteOnExit();
+        ProjectJsonConverter.getInstance().writeProject(new Project(titles, files, "0.0.1", new Date()), file);
+        ProjectIndex index = ProjectIndex.read(file);
+        SavedTab[] tabs = new SavedTab[titles.size()];
+        for (int i = 0; i < tabs.length; i++) {
+            tabs[i] = new SavedTab();
+            tabs[i].saved(index, i, 0);
+        }
+        // the tabs are not loaded, so they are read when the project is written
+        List<String> unloadedFiles = new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                try {
+                    return tabs[i].read(0);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public int size() {
+                return tabs.length;
+            }
+        };
+        ProjectJournal.ICompactionCallback callback = new ProjectJournal.ICompactionCallback() {
+            @Override
+            public void compacted(ProjectIndex writtenIndex, Project project) {
+                for (int i = 0; i < tabs.length; i++) {
+                    tabs[i].saved(writtenIndex, i, 0);
+                }
+            }
+
+            @Override
+            public void failed() {
+            }
+        };
+
+        // execute tests
+        ProjectJournal journal = ProjectJournal.open(file);
+        // both saves are taken before the first one is written, the first one replaces the file
+        Project first = new Project(titles, unloadedFiles, "0.0.1", new Date());
+        Project second = new Project(titles, unloadedFiles, "0.0.1", new Date());
+        ProjectIndex firstIndex = journal.compact(first, true, callback).get();
+        ProjectIndex secondIndex = journal.compact(second, false, callback).get();
+        journal.close();
+        Project saved = ProjectJsonConverter.getInstance().readProject(file);
+        String reloaded = tabs[1].read();
+        file.delete();
+
+        // check
+        boolean success = true;
+        success &= !index.isValid() && !firstIndex.isValid() && secondIndex.getTabCount() == 2;
+        success &= saved.getFiles().equals(files);
+        success &= reloaded.equals("print(2)\n");
+
+        // return result
+        return success;
+    }
+}
@@ -1,11 +1,21 @@
 package test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import model.Project;
+import model.ProjectContainer;
+import model.ProjectIndex;
 import model.ProjectJsonConverter;
+import org.json.simple.JSONValue;
 
 /**
  * Test class for {@link model.ProjectJsonConverter}.
@@ -42,4 +52,109 @@ public class ProjectJsonConverterTest {
         // return result
         return project.equals(projectConverted);
     }
+
+    public boolean jsonSimpleCompatibilityTest() {
+        // prepare data
+        List<String> titles = Arrays.asList("Tab \"1\"", "Tab\t2 \u2028/");
+        List<String> files = Arrays.asList("print('a\\b')\r\n\u0001", "");
+        Map<String, Object> unknown = new LinkedHashMap<>();
+        unknown.put("nested", new ArrayList<Object>());
+        unknown.put("number", -1.5e3);
+        Map<String, Object> jsonObject = new LinkedHashMap<>();
+        jsonObject.put("jaPyVersion", "0.0.1");
+        jsonObject.put("modificationDate", "2020-02-04 12:34:56.789");
+        jsonObject.put("titles", titles);
+        jsonObject.put("files", files);
+        jsonObject.put("unknown", unknown);
+        jsonObject.put("flag", true);
+
+        // execute tests
+        Project project = ProjectJsonConverter.getInstance().jsonStringToProject(" \n" + JSONValue.toJSONString(jsonObject));
+        Project invalidProject = ProjectJsonConverter.getInstance().jsonStringToProject("{\"titles\":[\"a\"],\"files\":[\"b");
+
+        // check
+        boolean success = true;
+        success &= project != null;
+        success &= project.getTitles().equals(titles);
+        success &= project.getFiles().equals(files);
+        success &= project.getJaPyVersion().equals("0.0.1");
+        success &= invalidProject == null;
+
+        // return result
+        return success;
+    }
+
+    public boolean containerTest() {
+        // prepare data
+        List<String> titles = Arrays.asList("äöü 1", "Tab 2", "€ 3");
+        List<String> files = Arrays.asList("print('äöü')\n", "", "x = '€'\r\ny = 1\n");
+        Project project = new Project(titles, files, "0.0.1", new Date());
+        File containerFile = new File(System.getProperty("java.io.tmpdir"), "japy-test-" + UUID.randomUUID() + ".japy");
+        File jsonFile = new File(System.getProperty("java.io.tmpdir"), "japy-test-" + UUID.randomUUID() + ".japy");
+
+        // execute tests
+        boolean written = ProjectJsonConverter.getInstance().writeProject(project, containerFile, true);
+        written &= ProjectJsonConverter.getInstance().writeProject(project, jsonFile, false);
+        Project containerProject = ProjectJsonConverter.getInstance().readProject(containerFile);
+        Project jsonProject = ProjectJsonConverter.getInstance().readProject(jsonFile);
+        boolean detected = false;
+        String lastTab = null;
+        try {
+            detected = ProjectContainer.isContainer(containerFile) && !ProjectContainer.isContainer(jsonFile);
+            lastTab = ProjectIndex.read(containerFile).readFile(2);
+        } catch (Exception e) {
+            detected = false;
+        }
+        boolean notEmpty = containerFile.length() > 0 && jsonFile.length() > 0;
+        containerFile.delete();
+        jsonFile.delete();
+
+        // check
+        boolean success = true;
+        success &= written && detected && notEmpty;
+        success &= project.equals(containerProject);
+        success &= project.equals(jsonProject);
+        success &= files.get(2).equals(lastTab);
+
+        // return result
+        return success;
+    }
+
+    public boolean failedWriteKeepsFileTest() throws Exception {
+        // prepare data
+        Project project = new Project(Arrays.asList("Tab 1", "Tab 2"), Arrays.asList("print(1)\n", "print(2)\n"), "0.0.1", new Date());
+        // the second tab can not be read, like a tab of a project file that was deleted
+        List<String> failingFiles = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index == 1) {
+                    throw new UncheckedIOException(new IOException("Tab 2 not readable"));
+                }
+                return "print(3)\n";
+            }
+
+            @Override
+            public int size() {
+                return 2;
+            }
+        };
+        Project failingProject = new Project(Arrays.asList("Tab 1", "Tab 2"), failingFiles, "0.0.1", new Date());
+        File file = File.createTempFile("japy-test", ".japy");
+        file.deleteOnExit();
+
+        // execute tests
+        boolean written = ProjectJsonConverter.getInstance().writeProject(project, file, false);
+        boolean failingWritten = ProjectJsonConverter.getInstance().writeProject(failingProject, file, true);
+        Project read = ProjectJsonConverter.getInstance().readProject(file);
+        boolean tempFileDeleted = !new File(file.getAbsolutePath() + ".tmp").exists();
+        file.delete();
+
+        // check
+        boolean success = true;
+        success &= written && !failingWritten && tempFileDeleted;
+        success &= project.equals(read);
+
+        // return result
+        return success;
+    }
 }
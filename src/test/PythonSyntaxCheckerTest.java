@@ -0,0 +1,43 @@
+package test;
+
+import python.PythonSyntaxChecker;
+
+/**
+ * Test class for {@link python.PythonSyntaxChecker}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonSyntaxCheckerTest {
+
+    public boolean validScriptTest() {
+        // prepare data
+        String script = "import JaPyGame\n\ndef f(x):\n    if x:\n        return 1\n    else:\n        return 2\n\n@staticmethod\ndef g():\n    s = \"\"\"\nnot = code (\n\"\"\"\n    return s\n";
+
+        // execute tests
+        PythonSyntaxChecker.Problem problem = PythonSyntaxChecker.getInstance().checkNow(script);
+
+        // check
+        boolean success = true;
+        success &= problem == null;
+
+        // return result
+        return success;
+    }
+
+    public boolean syntaxErrorTest() {
+        // prepare data
+        String script = "def f(x):\n    return x\n\nprint f(1)\n\nif f(2)\n    pass\n";
+
+        // execute tests
+        PythonSyntaxChecker.Problem problem = PythonSyntaxChecker.getInstance().checkNow(script);
+
+        // check
+        boolean success = true;
+        success &= problem != null;
+        success &= problem != null && problem.getLine() == 6;
+
+        // return result
+        return success;
+    }
+}
@@ -0,0 +1,54 @@
+package test;
+
+import python.SourceMap;
+
+/**
+ * Test class for {@link python.SourceMap}.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class SourceMapTest {
+
+    public boolean lookupTest() {
+        // prepare data
+        SourceMap sourceMap = new SourceMap.Builder()
+                .addSegment("<run-1>", 11, 5, "Second", 1)
+                .addSegment("<run-1>", 1, 10, "First", 3)
+                .addSegment("JaPyGame.py", 1, 300, null, 1)
+                .build();
+
+        // execute tests
+        SourceMap.Position first = sourceMap.lookup("<run-1>", 4);
+        SourceMap.Position second = sourceMap.lookup("<run-1>", 15);
+
+        // check
+        boolean success = true;
+        success &= first.getSourceName().equals("First") && first.getLine() == 6;
+        success &= second.getSourceName().equals("Second") && second.getLine() == 5;
+        success &= sourceMap.lookup("<run-1>", 16) == null;
+        success &= sourceMap.lookup("<run-1>", 0) == null;
+        success &= sourceMap.lookup("JaPyGame.py", 20) == null;
+        success &= sourceMap.lookup("<run-2>", 1) == null;
+
+        // return result
+        return success;
+    }
+
+    public boolean translateTest() {
+        // prepare data
+        SourceMap sourceMap = new SourceMap.Builder().addSegment("<run-7>", 1, 20, "Main", 1).build();
+
+        // execute tests
+        String traceback = sourceMap.translate("  File \"<run-7>\", line 12, in f\n  File \"JaPyGame.py\", line 3, in tick");
+        String syntaxError = sourceMap.translate("SyntaxError: invalid syntax (<run-7>, line 2)");
+
+        // check
+        boolean success = true;
+        success &= traceback.equals("  File \"Main\", line 12, in f\n  File \"JaPyGame.py\", line 3, in tick");
+        success &= syntaxError.equals("SyntaxError: invalid syntax (Main, line 2)");
+
+        // return result
+        return success;
+    }
+}
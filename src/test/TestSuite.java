@@ -13,7 +13,12 @@ import java.util.List;
  */
 public class TestSuite {
 
-    private static final List<String> TESTS_TO_RUN = Arrays.asList(ProjectJsonConverterTest.class.getSimpleName(), ListUtilTest.class.getSimpleName());
+    private static final List<String> TESTS_TO_RUN = Arrays.asList(ProjectJsonConverterTest.class.getSimpleName(), ListUtilTest.class.getSimpleName(),
+            ConsoleModelTest.class.getSimpleName(), PythonSyntaxCheckerTest.class.getSimpleName(),
+            FrameBufferTest.class.getSimpleName(), KeyboardInputTest.class.getSimpleName(),
+            ErrorLineFilterTest.class.getSimpleName(), SourceMapTest.class.getSimpleName(),
+            LogRingBufferTest.class.getSimpleName(), ProjectIndexTest.class.getSimpleName(),
+            ProjectJournalTest.class.getSimpleName());
 
     public static boolean startTests() {
         boolean success = true;
@@ -7,43 +7,62 @@ import java.awt.Desktop;
 import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import model.ProjectIndex;
+import model.ProjectJournal;
+import model.SavedTab;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rtextarea.RTextScrollPane;
 import preferences.Preferences;
 import python.IPythonCallback;
 import python.PythonLibConcatter;
-import python.PythonWrapper;
+import python.PythonRunScheduler;
 import view.itf.IViewComponent;
 import view.l10n.L10n;
 import view.util.ButtonTabComponent;
 import view.util.ButtonUtil;
 import view.util.ColorStore;
+import view.util.ConsolePane;
+import view.util.ErrorLineFilter;
 import view.util.GenericDialog;
 import view.util.LabelUtil;
 import view.util.LoadingAnimation;
+import view.util.PythonSyntaxParser;
 
 /**
  * Main Menu screen.
@@ -53,17 +72,25 @@ import view.util.LoadingAnimation;
  */
 public class Editor implements IViewComponent {
 
+    // errors are appended to the console at most once per frame
+    private static final int CONSOLE_APPEND_DELAY_MILLIS = 16;
+    private static final int MAX_PENDING_ERROR_CHARS = 1000000;
+
     private JTabbedPane tabbedPane;
 
     private static Editor instance;
 
-    private List<JTextArea> editors = new ArrayList<>();
+    private List<EditorTab> tabs = new ArrayList<>();
+    // tabs with an editor, the least recently selected first
+    private final LinkedHashSet<EditorTab> loadedTabs = new LinkedHashSet<>();
+    private List<TabConsole> consoles = new ArrayList<>();
     private JScrollPane consoleScrollPane;
-    private JTextArea consoleTextArea;
+    // the console that is currently shown
+    private ConsolePane consolePane;
+    private JLabel droppedLinesLabel;
     private PrintOutErrStream printOutErrStream;
-
-    private Pattern p = Pattern.compile("\\d+");
-    private boolean errorIsShowing = false;
+    // records the edits of the tabs, null if the project has no file yet
+    private ProjectJournal journal;
 
     private Editor() {
         // hide constructor, singleton pattern
@@ -121,28 +148,28 @@ public class Editor implements IViewComponent {
         JButton biggerButton = ButtonUtil.createButton(new Runnable() {
             @Override
             public void run() {
-                for (JTextArea a : editors) {
-                    Font font = a.getFont();
+                for (EditorTab tab : loadedTabs) {
+                    Font font = tab.editor.getFont();
                     float size = font.getSize() + 1.0f;
-                    a.setFont(font.deriveFont(checkBounds(size)));
+                    tab.editor.setFont(font.deriveFont(checkBounds(size)));
                 }
-                Font font = consoleTextArea.getFont();
+                Font font = consolePane.getFont();
                 float size = font.getSize() + 1.0f;
-                consoleTextArea.setFont(font.deriveFont(checkBounds(size)));
+                setConsoleFont(font.deriveFont(checkBounds(size)));
             }
         }, "zoom_in.png", 40, 40, L10n.getString("bigger"));
         retList.add(biggerButton);
         JButton smallerButton = ButtonUtil.createButton(new Runnable() {
             @Override
             public void run() {
-                for (JTextArea a : editors) {
-                    Font font = a.getFont();
+                for (EditorTab tab : loadedTabs) {
+                    Font font = tab.editor.getFont();
                     float size = font.getSize() - 1.0f;
-                    a.setFont(font.deriveFont(checkBounds(size)));
+                    tab.editor.setFont(font.deriveFont(checkBounds(size)));
                 }
-                Font font = consoleTextArea.getFont();
+                Font font = consolePane.getFont();
                 float size = font.getSize() - 1.0f;
-                consoleTextArea.setFont(font.deriveFont(checkBounds(size)));
+                setConsoleFont(font.deriveFont(checkBounds(size)));
             }
         }, "zoom_out.png", 40, 40, L10n.getString("smaller"));
         retList.add(smallerButton);
@@ -179,71 +206,78 @@ public class Editor implements IViewComponent {
         JButton runButton = ButtonUtil.createButton(new Runnable() {
             @Override
             public void run() {
-                PythonWrapper.getInstance().cancelInterpreter();
-                consoleTextArea.setBackground(ColorStore.BACKGROUND_CONSOLE);
-                consoleTextArea.setText("");
-                errorIsShowing = false;
-                Control.getInstance().saveCurrentProject(false);
                 int i = tabbedPane.getSelectedIndex();
-                String pythonString = editors.get(i).getText();
+                if (i < 0) {
+                    return;
+                }
+                EditorTab tab = tabs.get(i);
+                if (tab.editor == null || tab.loadFailed) {
+                    return;
+                }
+                TabConsole console = consoles.get(i);
+                console.pane.setBackground(ColorStore.BACKGROUND_CONSOLE);
+                setConsoleText(console.pane, "");
+                console.errorIsShowing = false;
+                // callbacks of cancelled runs may still be queued, they must not touch the console
+                int run = ++console.currentRun;
+                Control.getInstance().autosaveCurrentProject();
+                String pythonString = tab.editor.getText();
                 LoadingAnimation.showLoadingAnim();
-                PythonWrapper.getInstance().interpret(pythonString, new IPythonCallback() {
+                PythonRunScheduler.getInstance().submit(tab, tabbedPane.getTitleAt(i), pythonString, new IPythonCallback() {
                     @Override
-                    public void interpreterOutput(String output) {
-                        if (errorIsShowing) {
-                            return;
-                        }
-                        consoleTextArea.setBackground(ColorStore.BACKGROUND_CONSOLE);
-                        consoleTextArea.setText(output);
-                        JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                        vertical.setValue(vertical.getMaximum() + 500);
+                    public void interpreterOutputAppended(String chunk) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (console.errorIsShowing || run != console.currentRun) {
+                                    return;
+                                }
+                                console.pane.setBackground(ColorStore.BACKGROUND_CONSOLE);
+                                appendToConsole(console.pane, chunk);
+                            }
+                        });
                     }
 
                     @Override
                     public void alreadyRunning() {
-                        errorIsShowing = true;
-                        consoleTextArea.setBackground(ColorStore.RED);
-                        consoleTextArea.setText("Already running!");
-                        JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                        vertical.setValue(vertical.getMaximum() + 500);
+                        showConsoleError(console, "Too many runs waiting!", run);
+                    }
+
+                    @Override
+                    public void executionQueued() {
+                        showConsoleInfo(console, "Waiting for a free interpreter...", run);
+                    }
+
+                    @Override
+                    public void executionStarted() {
+                        showConsoleInfo(console, "", run);
                     }
 
                     @Override
                     public void syntaxError(String error) {
-                        errorIsShowing = true;
-                        consoleTextArea.setBackground(ColorStore.RED);
-                        consoleTextArea.setText(correctLineNumbers(error));
-                        JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                        vertical.setValue(vertical.getMaximum() + 500);
-                        PythonWrapper.getInstance().cancelInterpreter();
+                        showConsoleError(console, error, run);
                     }
 
                     @Override
                     public void pythonRuntimeError(String error) {
-                        errorIsShowing = true;
-                        consoleTextArea.setBackground(ColorStore.RED);
-                        consoleTextArea.setText(correctLineNumbers(error));
-                        JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                        vertical.setValue(vertical.getMaximum() + 500);
-                        PythonWrapper.getInstance().cancelInterpreter();
+                        showConsoleError(console, error, run);
                     }
 
                     @Override
                     public void executionCancelled() {
-                        errorIsShowing = true;
-                        consoleTextArea.setBackground(ColorStore.RED);
-                        consoleTextArea.setText("Execution cancelled!");
-                        JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                        vertical.setValue(vertical.getMaximum() + 500);
+                        showConsoleError(console, "Execution cancelled!", run);
                     }
-                });
+                }, new RunErrorWriter(console, run));
             }
         }, "play.png", 40, 40, L10n.getString("run"));
         retList.add(runButton);
         JButton cancelButton = ButtonUtil.createButton(new Runnable() {
             @Override
             public void run() {
-                PythonWrapper.getInstance().cancelInterpreter();
+                int i = tabbedPane.getSelectedIndex();
+                if (i >= 0) {
+                    PythonRunScheduler.getInstance().cancel(tabs.get(i));
+                }
             }
         }, "block.png", 40, 40, L10n.getString("cancelRun"));
         retList.add(cancelButton);
@@ -262,6 +296,16 @@ public class Editor implements IViewComponent {
         // add tabs area for text editor
         tabbedPane = getEditorArea();
         tabbedPane.setTabLayoutPolicy(JTabbedPane.SCROLL_TAB_LAYOUT);
+        tabbedPane.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                int i = tabbedPane.getSelectedIndex();
+                if (i >= 0 && i < tabs.size()) {
+                    loadTab(tabs.get(i));
+                    showConsole(consoles.get(i).pane);
+                }
+            }
+        });
 
         View.getInstance().setExtendedState(View.MAXIMIZED_BOTH);
 
@@ -301,24 +345,94 @@ public class Editor implements IViewComponent {
     }
 
     public void addTab(String title, String fileContent) {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(ColorStore.BACKGROUND_VERY_LIGHT);
+        EditorTab tab = new EditorTab();
+        tab.content = fileContent;
+        addTab(title, tab);
+        if (journal != null) {
+            journal.addTab(tabs.size() - 1, title, fileContent);
+        }
+        tabbedPane.setSelectedIndex(tabs.size() - 1);
+        tabbedPane.invalidate();
+        tabbedPane.repaint();
+    }
+
+    private void addTab(String title, EditorTab tab) {
+        tab.panel.setBackground(ColorStore.BACKGROUND_VERY_LIGHT);
+        tabs.add(tab);
+        consoles.add(new TabConsole(createConsolePane(consolePane.getFont())));
+        tabbedPane.addTab(title, null, tab.panel);
+        tabbedPane.setTabComponentAt(tabs.size() - 1, new ButtonTabComponent(tabbedPane));
+    }
+
+    /**
+     * Creates the editor of a tab, if it has none yet, and unloads the least
+     * recently selected tabs above the limit.
+     */
+    private void loadTab(EditorTab tab) {
+        loadedTabs.remove(tab);
+        loadedTabs.add(tab);
+        if (tab.editor == null) {
+            String fileContent;
+            try {
+                fileContent = readContent(tab);
+            } catch (IOException e) {
+                Log.error(Editor.class, "Could not load tab: " + e.getMessage());
+                fileContent = e.getMessage();
+                tab.loadFailed = true;
+            }
+            tab.content = null;
+            createEditor(tab, fileContent);
+        }
+        unloadTabs();
+    }
 
+    private void createEditor(EditorTab tab, String fileContent) {
         GridBagConstraints constraints = new GridBagConstraints();
         JPanel content = new JPanel(new GridBagLayout());
 
         RSyntaxTextArea editorTextArea = new RSyntaxTextArea(20, 60);
-        Font font = consoleTextArea.getFont();
+        Font font = consolePane.getFont();
         float size = font.getSize() - 1.0f;
         editorTextArea.setFont(font.deriveFont(checkBounds(size)));
-        editors.add(editorTextArea);
         editorTextArea.setSyntaxEditingStyle(SyntaxConstants.SYNTAX_STYLE_PYTHON);
         editorTextArea.setTabsEmulated(true);
         editorTextArea.setTabSize(4);
         editorTextArea.setCodeFoldingEnabled(true);
         editorTextArea.setAntiAliasingEnabled(true);
         editorTextArea.setText(fileContent);
+        editorTextArea.setCaretPosition(0);
+        // a tab that could not be read must not be saved with the error text
+        editorTextArea.setEditable(!tab.loadFailed);
+        editorTextArea.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                tab.changed = true;
+                tab.revision++;
+                if (journal != null) {
+                    try {
+                        journal.insert(tabs.indexOf(tab), e.getOffset(), e.getDocument().getText(e.getOffset(), e.getLength()));
+                    } catch (BadLocationException ex) {
+                        Log.error(Editor.class, "Could not journal edit: " + ex.getMessage());
+                    }
+                }
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                tab.changed = true;
+                tab.revision++;
+                if (journal != null) {
+                    journal.remove(tabs.indexOf(tab), e.getOffset(), e.getLength());
+                }
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        new PythonSyntaxParser(editorTextArea);
         RTextScrollPane sp = new RTextScrollPane(editorTextArea);
+        tab.editor = editorTextArea;
 
         constraints.gridx = 0;
         constraints.gridy = 0;
@@ -328,12 +442,81 @@ public class Editor implements IViewComponent {
         constraints.weightx = 1;
         constraints.gridwidth = 1;
         content.add(sp, constraints);
-        panel.add(content);
-        tabbedPane.addTab(title, null, panel);
-        tabbedPane.setTabComponentAt(editors.size() - 1, new ButtonTabComponent(tabbedPane));
-        tabbedPane.setSelectedIndex(editors.size() - 1);
-        tabbedPane.invalidate();
-        tabbedPane.repaint();
+        tab.panel.add(content);
+        tab.panel.revalidate();
+    }
+
+    private void unloadTabs() {
+        int maxLoadedTabs = Math.max(1, Preferences.getInstance().maxLoadedTabs);
+        int selected = tabbedPane.getSelectedIndex();
+        Iterator<EditorTab> iterator = loadedTabs.iterator();
+        while (loadedTabs.size() > maxLoadedTabs && iterator.hasNext()) {
+            EditorTab tab = iterator.next();
+            if (selected >= 0 && selected < tabs.size() && tab == tabs.get(selected)) {
+                continue;
+            }
+            if (unloadTab(tab)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the editor of a tab. The content is read from the project file
+     * again when the tab is selected next time, changed content is kept in a
+     * swap file until the project is saved.
+     *
+     * @return false if the content could not be kept, the tab stays loaded
+     */
+    private boolean unloadTab(EditorTab tab) {
+        if (!tab.loadFailed && (tab.changed || (tab.swapFile == null && !tab.savedTab.isSaved()))) {
+            try {
+                if (tab.swapFile == null) {
+                    // readable only by the user on POSIX systems, unlike File.createTempFile
+                    tab.swapFile = Files.createTempFile("japy-tab", ".py").toFile();
+                    tab.swapFile.deleteOnExit();
+                }
+                Files.write(tab.swapFile.toPath(), tab.editor.getText().getBytes(StandardCharsets.UTF_8));
+                tab.changed = false;
+            } catch (IOException e) {
+                Log.error(Editor.class, "Could not unload tab: " + e.getMessage());
+                return false;
+            }
+        }
+        uninstallSyntaxParser(tab.editor);
+        tab.editor = null;
+        tab.loadFailed = false;
+        tab.panel.removeAll();
+        return true;
+    }
+
+    /**
+     * Get the content of a tab, from its editor if it is loaded.
+     */
+    private String readContent(EditorTab tab) throws IOException {
+        if (tab.editor != null && !tab.loadFailed) {
+            return tab.editor.getText();
+        }
+        if (tab.content != null) {
+            return tab.content;
+        }
+        if (tab.swapFile != null) {
+            return new String(Files.readAllBytes(tab.swapFile.toPath()), StandardCharsets.UTF_8);
+        }
+        if (tab.savedTab.isSaved()) {
+            return tab.savedTab.read();
+        }
+        return "";
+    }
+
+    private void removeTab(EditorTab tab) {
+        PythonRunScheduler.getInstance().cancel(tab);
+        if (tab.editor != null) {
+            uninstallSyntaxParser(tab.editor);
+        }
+        if (tab.swapFile != null) {
+            tab.swapFile.delete();
+        }
     }
 
     private void removeAllTabs() {
@@ -352,19 +535,12 @@ public class Editor implements IViewComponent {
         GridBagConstraints constraints = new GridBagConstraints();
         JPanel content = new JPanel(new GridBagLayout());
 
-        consoleTextArea = new JTextArea();
-        consoleTextArea.setColumns(20);
-        consoleTextArea.setRows(5);
-        consoleTextArea.setEditable(false);
-        consoleTextArea.setBackground(ColorStore.BACKGROUND_CONSOLE);
-        consoleTextArea.setText("Console ready\n-------------");
-        consoleTextArea.setCaretColor(ColorStore.FOREGROUND_CONSOLE);
-        consoleTextArea.setForeground(ColorStore.FOREGROUND_CONSOLE);
-        printOutErrStream = new Editor.PrintOutErrStream();
+        consolePane = createConsolePane(null);
+        printOutErrStream = new Editor.PrintOutErrStream(null, 0);
         System.setErr(new PrintStream(printOutErrStream, true));
 
         consoleScrollPane = new JScrollPane();
-        consoleScrollPane.setViewportView(consoleTextArea);
+        consoleScrollPane.setViewportView(consolePane);
 
         constraints.gridx = 0;
         constraints.gridy = 0;
@@ -375,110 +551,459 @@ public class Editor implements IViewComponent {
         constraints.gridwidth = 1;
         content.add(consoleScrollPane, constraints);
 
+        droppedLinesLabel = new JLabel();
+        droppedLinesLabel.setVisible(false);
+        constraints.gridy = 1;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        constraints.weighty = 0;
+        content.add(droppedLinesLabel, constraints);
+
         return content;
     }
 
+    private ConsolePane createConsolePane(Font font) {
+        ConsolePane pane = new ConsolePane(Preferences.getInstance().consoleMaxLines, Preferences.getInstance().consoleMaxChars);
+        if (font != null) {
+            pane.setFont(font);
+        }
+        pane.setBackground(ColorStore.BACKGROUND_CONSOLE);
+        pane.setText("Console ready\n-------------");
+        pane.setForeground(ColorStore.FOREGROUND_CONSOLE);
+        return pane;
+    }
+
+    private void uninstallSyntaxParser(JTextArea editor) {
+        RSyntaxTextArea textArea = (RSyntaxTextArea) editor;
+        for (int i = textArea.getParserCount() - 1; i >= 0; i--) {
+            if (textArea.getParser(i) instanceof PythonSyntaxParser) {
+                ((PythonSyntaxParser) textArea.getParser(i)).uninstall();
+            }
+        }
+    }
+
+    private void showConsole(ConsolePane pane) {
+        consolePane = pane;
+        consoleScrollPane.setViewportView(pane);
+        updateDroppedLinesLabel();
+        pane.scrollToBottom();
+    }
+
+    private void setConsoleFont(Font font) {
+        consolePane.setFont(font);
+        for (TabConsole console : consoles) {
+            console.pane.setFont(font);
+        }
+    }
+
+    private void appendToConsole(ConsolePane pane, String text) {
+        pane.append(text);
+        if (pane == consolePane) {
+            updateDroppedLinesLabel();
+            pane.scrollToBottom();
+        }
+    }
+
+    private void updateDroppedLinesLabel() {
+        long droppedLines = consolePane.getDroppedLineCount();
+        droppedLinesLabel.setText(L10n.getString("consoleLinesDropped") + " " + droppedLines);
+        droppedLinesLabel.setVisible(droppedLines > 0);
+    }
+
+    private void showConsoleError(TabConsole console, String text, int run) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (run != console.currentRun) {
+                    return;
+                }
+                console.errorIsShowing = true;
+                console.pane.setBackground(ColorStore.RED);
+                setConsoleText(console.pane, text);
+            }
+        });
+    }
+
+    private void showConsoleInfo(TabConsole console, String text, int run) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (run != console.currentRun || console.errorIsShowing) {
+                    return;
+                }
+                setConsoleText(console.pane, text);
+            }
+        });
+    }
+
+    private void setConsoleText(ConsolePane pane, String text) {
+        pane.setText(text);
+        if (pane == consolePane) {
+            droppedLinesLabel.setVisible(false);
+            pane.scrollToBottom();
+        }
+    }
+
     public List<String> getEditorTitles() {
         List<String> retList = new ArrayList<>();
-        for (int i = 0; i < editors.size(); i++) {
+        for (int i = 0; i < tabs.size(); i++) {
             retList.add(tabbedPane.getTitleAt(i));
         }
         return retList;
     }
 
-    public List<String> getEditorContents() {
-        List<String> retList = new ArrayList<>();
-        for (JTextArea editor : editors) {
-            retList.add(editor.getText());
+    /**
+     * Takes a snapshot of the tabs, to be saved on another thread. The
+     * contents of loaded and changed tabs are copied, tabs that are only in
+     * the project file are read when their element is accessed, so that a
+     * project can be saved without holding all tabs in memory. They are read
+     * from the file the last save wrote them to, which may be a save that
+     * finishes after the snapshot was taken.
+     *
+     * @return the snapshot
+     * @throws IOException if a swap file could not be read
+     */
+    public EditorSnapshot createSnapshot() throws IOException {
+        EditorSnapshot snapshot = new EditorSnapshot(getEditorTitles(), tabs);
+        for (int i = 0; i < tabs.size(); i++) {
+            EditorTab tab = tabs.get(i);
+            if ((tab.editor == null || tab.loadFailed) && tab.content == null && tab.swapFile == null && tab.savedTab.isSaved()) {
+                snapshot.savedTabs[i] = tab.savedTab;
+            } else {
+                snapshot.contents[i] = readContent(tab);
+            }
         }
-        return retList;
+        return snapshot;
+    }
+
+    public void setJournal(ProjectJournal journal) {
+        this.journal = journal;
     }
 
     public void setEditorContents(List<String> titles, List<String> contents) {
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
+                clearEditors();
                 removeAllTabs();
                 for (int i = 0; i < titles.size(); i++) {
-                    addTab(titles.get(i), contents.get(i));
+                    EditorTab tab = new EditorTab();
+                    tab.content = contents.get(i);
+                    addTab(titles.get(i), tab);
                 }
-                if (tabbedPane.getTabCount() > 0) {
-                    tabbedPane.setSelectedIndex(0);
+                selectFirstTab();
+            }
+        });
+    }
+
+    /**
+     * Shows the tabs of a project file. Only the titles are loaded, the
+     * content of a tab is read from the file when it is selected.
+     *
+     * @param index the index of the project file
+     */
+    public void setEditorContents(ProjectIndex index) {
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                clearEditors();
+                removeAllTabs();
+                for (int i = 0; i < index.getTabCount(); i++) {
+                    EditorTab tab = new EditorTab();
+                    tab.savedTab.saved(index, i, tab.revision);
+                    addTab(index.getTitles().get(i), tab);
                 }
+                selectFirstTab();
             }
         });
     }
 
+    /**
+     * Called after a snapshot was saved, the tabs that were not changed since
+     * are read from the new file from now on. The tabs were moved to the new
+     * file by {@link EditorSnapshot#saved(ProjectIndex)} already.
+     *
+     * @param index the index of the saved project file
+     * @param snapshot the saved snapshot
+     */
+    public void projectSaved(ProjectIndex index, EditorSnapshot snapshot) {
+        if (index.getTabCount() != snapshot.tabs.size()) {
+            return;
+        }
+        for (int i = 0; i < snapshot.tabs.size(); i++) {
+            EditorTab tab = snapshot.tabs.get(i);
+            if (tab.loadFailed || tab.revision != snapshot.revisions[i]) {
+                continue;
+            }
+            tab.content = null;
+            tab.changed = false;
+            if (tab.swapFile != null) {
+                tab.swapFile.delete();
+                tab.swapFile = null;
+            }
+        }
+    }
+
+    private void selectFirstTab() {
+        if (tabbedPane.getTabCount() > 0) {
+            tabbedPane.setSelectedIndex(0);
+            loadTab(tabs.get(0));
+            showConsole(consoles.get(0).pane);
+        }
+    }
+
     public boolean editorHasChanges() {
         //TODO fix
-        return !editors.isEmpty();
+        return !tabs.isEmpty();
     }
 
     public void clearEditors() {
-        editors.clear();
+        for (EditorTab tab : tabs) {
+            removeTab(tab);
+        }
+        tabs.clear();
+        loadedTabs.clear();
+        consoles.clear();
     }
 
     public void closeTab(int index) {
         GenericDialog dialog = new GenericDialog(L10n.getString("reallyClose"), Arrays.asList(new JLabel(LabelUtil.styleLabel(L10n.getString("reallyClose")))));
         int selection = dialog.show();
         if (selection == GenericDialog.SELECTION_OK) {
+            EditorTab tab = tabs.remove(index);
+            if (journal != null) {
+                journal.closeTab(index);
+            }
+            removeTab(tab);
+            loadedTabs.remove(tab);
+            consoles.remove(index);
             tabbedPane.remove(index);
-            editors.remove(index);
         }
     }
 
+    /**
+     * Shows System.err in the console. The written text is split into lines
+     * and filtered as it comes in, the console is updated at most once per
+     * frame on the EDT, so that a flood of errors does not block the EDT.
+     */
     private class PrintOutErrStream extends ByteArrayOutputStream {
 
+        // the start of a line whose line break was not written yet
+        private final StringBuilder partialLine = new StringBuilder();
+        private final StringBuilder pendingText = new StringBuilder();
+        private final ErrorLineFilter lineFilter = new ErrorLineFilter(PythonLibConcatter.getLibFileNames());
+        private final Timer appendTimer;
+        // null for the console that is shown
+        private final TabConsole console;
+        private final int run;
+
+        /**
+         * @param console the console to show the text in, null for the one
+         * that is shown
+         * @param run the run of the console the text belongs to
+         */
+        PrintOutErrStream(TabConsole console, int run) {
+            this.console = console;
+            this.run = run;
+            appendTimer = new Timer(CONSOLE_APPEND_DELAY_MILLIS, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    appendPendingText();
+                }
+            });
+            appendTimer.setRepeats(false);
+        }
+
         public void clear() {
-            consoleTextArea.setText("");
+            setConsoleText(consolePane, "");
         }
 
+        @Override
         public void flush() throws IOException {
+            String chunk;
             synchronized (this) {
                 super.flush();
-                String outputStr = this.toString();
-                outputStr = outputStr.replace("Exception in thread \"AWT-EventQueue-0\" ", "");
-                outputStr = outputStr.replace("Traceback (most recent call last):\r\n", "");
-                if (outputStr.contains("java")) {
-                    outputStr = "";
-                }
+                chunk = toString();
                 super.reset();
-                if (!outputStr.isEmpty()) {
-                    String str = "";
-                    String[] lines = null;
-                    if (outputStr.contains("\r\n")) {
-                        lines = outputStr.split("\r\n");
-                    } else {
-                        lines = new String[1];
-                        lines[0] = outputStr;
-                    }
-                    for (String l : lines) {
-                        str += correctLineNumbers(l);
+            }
+            append(chunk);
+        }
+
+        public void append(String chunk) {
+            boolean appended = false;
+            synchronized (this) {
+                int lineStart = 0;
+                for (int i = 0; i < chunk.length(); i++) {
+                    if (chunk.charAt(i) == '\n') {
+                        partialLine.append(chunk, lineStart, i);
+                        appended |= lineFilter.appendFiltered(partialLine, pendingText);
+                        partialLine.setLength(0);
+                        lineStart = i + 1;
                     }
-                    consoleTextArea.append(str);
-                    consoleTextArea.setBackground(ColorStore.RED);
-                    JScrollBar vertical = consoleScrollPane.getVerticalScrollBar();
-                    vertical.setValue(vertical.getMaximum() + 500);
                 }
+                partialLine.append(chunk, lineStart, chunk.length());
+                if (pendingText.length() > MAX_PENDING_ERROR_CHARS) {
+                    // the console keeps only its last lines anyway
+                    pendingText.delete(0, pendingText.length() - MAX_PENDING_ERROR_CHARS);
+                }
+            }
+            if (appended && !appendTimer.isRunning()) {
+                appendTimer.start();
             }
         }
-    }
 
-    private String correctLineNumbers(String l) {
-        if (l.contains(", line ")) {
-            Matcher m = p.matcher(l);
-            while (m.find()) {
-                String numberString = m.group();
-                int number = Integer.parseInt(numberString);
-                number -= PythonLibConcatter.getNumberOfRowsAddedLast();
-                if (number >= 0) {
-                    String strToAdd = l.replace(numberString, number + "");
-                    return strToAdd + "\r\n";
-                } else {
-                    return "";
+        private void appendPendingText() {
+            String text;
+            synchronized (this) {
+                text = pendingText.toString();
+                pendingText.setLength(0);
+            }
+            if (text.isEmpty()) {
+                return;
+            }
+            ConsolePane pane = consolePane;
+            if (console != null) {
+                if (run != console.currentRun) {
+                    // the text of an older run must not show up in the console of a newer one
+                    return;
                 }
+                pane = console.pane;
             }
+            appendToConsole(pane, text);
+            pane.setBackground(ColorStore.RED);
+        }
+    }
+
+    /**
+     * sys.stderr of a run, shown in the console of the tab that started the
+     * run, no matter which tab is shown.
+     */
+    private class RunErrorWriter extends Writer {
+
+        private final PrintOutErrStream stream;
+
+        RunErrorWriter(TabConsole console, int run) {
+            stream = new PrintOutErrStream(console, run);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            stream.append(new String(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() {
+            // the stream shows complete lines on its own
+        }
+
+        @Override
+        public void close() {
+            // the console stays open for the next run
+        }
+    }
+
+    /**
+     * A tab of the editor. Its editor is only created when the tab is
+     * selected, until then the content stays where it came from.
+     */
+    private static class EditorTab {
+
+        private final JPanel panel = new JPanel(new BorderLayout());
+        // null while the tab is not loaded
+        private RSyntaxTextArea editor;
+        // content that is not in a file, e.g. of a new tab
+        private String content;
+        // content of the tab in the project file
+        private final SavedTab savedTab = new SavedTab();
+        // changed content of an unloaded tab
+        private File swapFile;
+        private boolean changed = false;
+        private boolean loadFailed = false;
+        // counts the edits, to find the tabs changed since a snapshot
+        private int revision = 0;
+    }
+
+    /**
+     * The titles and contents of the tabs at one point in time.
+     */
+    public static class EditorSnapshot {
+
+        private final List<String> titles;
+        private final List<EditorTab> tabs;
+        private final int[] revisions;
+        // either the content of a tab or the tab in the project file
+        private final String[] contents;
+        private final SavedTab[] savedTabs;
+
+        private EditorSnapshot(List<String> titles, List<EditorTab> tabs) {
+            this.titles = titles;
+            this.tabs = new ArrayList<>(tabs);
+            revisions = new int[tabs.size()];
+            for (int i = 0; i < revisions.length; i++) {
+                revisions[i] = tabs.get(i).revision;
+            }
+            contents = new String[tabs.size()];
+            savedTabs = new SavedTab[tabs.size()];
+        }
+
+        public List<String> getTitles() {
+            return titles;
+        }
+
+        /**
+         * Called on the journal thread when the snapshot was written, before
+         * the next save starts. The tabs are read from the written file from
+         * now on, also by snapshots taken before, the file they were taken
+         * from is replaced.
+         *
+         * @param index the index of the written project file
+         */
+        public void saved(ProjectIndex index) {
+            if (index.getTabCount() != tabs.size()) {
+                return;
+            }
+            for (int i = 0; i < tabs.size(); i++) {
+                tabs.get(i).savedTab.saved(index, i, revisions[i]);
+            }
+        }
+
+        /**
+         * Get the contents of the tabs.
+         *
+         * @return the contents, an element throws an UncheckedIOException if
+         * the tab could not be read from the project file
+         */
+        public List<String> getContents() {
+            return new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    if (contents[index] != null) {
+                        return contents[index];
+                    }
+                    try {
+                        return savedTabs[index].read(revisions[index]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public int size() {
+                    return contents.length;
+                }
+            };
+        }
+    }
+
+    /**
+     * The console of a tab and the state of its last run.
+     */
+    private static class TabConsole {
+
+        private final ConsolePane pane;
+        private boolean errorIsShowing = false;
+        private int currentRun = 0;
+
+        TabConsole(ConsolePane pane) {
+            this.pane = pane;
         }
-        return l + "\r\n";
     }
 
     private float checkBounds(float input) {
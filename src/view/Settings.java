@@ -183,6 +183,7 @@ public class Settings implements IViewComponent {
                 for (String s : Preferences.LOG_LEVELS.keySet()) {
                     if (s.equals((String) debugLevelSettings.getSelectedItem())) {
                         Preferences.getInstance().logLevel = Preferences.LOG_LEVELS.get(s);
+                        Log.setLogLevel(Preferences.getInstance().logLevel);
                         break;
                     }
                 }
@@ -0,0 +1,191 @@
+package view.util;
+
+/**
+ * Text model for consoles with a fixed capacity. The lines are kept in a ring
+ * buffer, so the oldest lines are dropped in constant time as soon as the
+ * line or character capacity is exceeded. Lines longer than
+ * {@link #MAX_LINE_LENGTH} are wrapped, so output without line breaks stays
+ * bounded as well.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ConsoleModel {
+
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    private final String[] lines;
+    private final long maxChars;
+    private final int lineCapacity;
+    private int head = 0;
+    private int count = 0;
+    private long chars = 0;
+    private long droppedLines = 0;
+    private int maxLineLength = 0;
+    private StringBuilder openLine = new StringBuilder();
+
+    /**
+     * Creates a new console model.
+     *
+     * @param maxLines the maximum number of lines to keep, at least 2
+     * @param maxChars the maximum number of characters to keep
+     */
+    public ConsoleModel(int maxLines, long maxChars) {
+        this.lines = new String[Math.max(1, maxLines - 1)];
+        this.maxChars = Math.max(1, maxChars);
+        this.lineCapacity = (int) Math.min(MAX_LINE_LENGTH, this.maxChars);
+    }
+
+    /**
+     * Appends text to the console. Line breaks start new lines, the text after
+     * the last line break stays in the last, still open line.
+     *
+     * @param text the text to append
+     * @return the number of lines that got dropped to stay within the capacity
+     */
+    public int append(String text) {
+        long droppedBefore = droppedLines;
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                int end = (i > start && text.charAt(i - 1) == '\r') ? i - 1 : i;
+                appendToOpenLine(text, start, end);
+                String line = openLine.toString();
+                openLine = new StringBuilder();
+                pushLine(line);
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            int end = text.charAt(length - 1) == '\r' ? length - 1 : length;
+            appendToOpenLine(text, start, end);
+            maxLineLength = Math.max(maxLineLength, openLine.length());
+            trimToCapacity();
+        }
+        return (int) (droppedLines - droppedBefore);
+    }
+
+    public void clear() {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+        head = 0;
+        count = 0;
+        chars = 0;
+        maxLineLength = 0;
+        openLine = new StringBuilder();
+    }
+
+    /**
+     * Get the number of lines, including the last, still open line.
+     *
+     * @return the number of lines
+     */
+    public int getLineCount() {
+        return count + 1;
+    }
+
+    public String getLine(int index) {
+        if (index == count) {
+            return openLine.toString();
+        }
+        if (index < 0 || index > count) {
+            throw new IndexOutOfBoundsException("Line " + index + " of " + getLineCount());
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    /**
+     * Get the text between two positions, e.g. of a selection.
+     *
+     * @param startLine the line of the first character
+     * @param startColumn the column of the first character
+     * @param endLine the line after the last character
+     * @param endColumn the column after the last character
+     * @return the text, with line breaks between the lines
+     */
+    public String getText(int startLine, int startColumn, int endLine, int endColumn) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = startLine; i <= endLine; i++) {
+            String line = getLine(i);
+            int from = i == startLine ? Math.min(startColumn, line.length()) : 0;
+            int to = i == endLine ? Math.min(endColumn, line.length()) : line.length();
+            if (from < to) {
+                sb.append(line, from, to);
+            }
+            if (i < endLine) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public String getText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(lines[(head + i) % lines.length]).append('\n');
+        }
+        sb.append(openLine);
+        return sb.toString();
+    }
+
+    public long getCharCount() {
+        return chars + openLine.length();
+    }
+
+    public long getDroppedLineCount() {
+        return droppedLines;
+    }
+
+    public void resetDroppedLineCount() {
+        droppedLines = 0;
+    }
+
+    /**
+     * Get the length of the longest line since the last clear.
+     *
+     * @return the length in characters
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    private void appendToOpenLine(String text, int start, int end) {
+        while (openLine.length() + end - start > lineCapacity) {
+            int split = start + lineCapacity - openLine.length();
+            openLine.append(text, start, split);
+            start = split;
+            String line = openLine.toString();
+            openLine = new StringBuilder();
+            pushLine(line);
+        }
+        openLine.append(text, start, end);
+    }
+
+    private void pushLine(String line) {
+        if (count == lines.length) {
+            dropOldestLine();
+        }
+        lines[(head + count) % lines.length] = line;
+        count++;
+        chars += line.length() + 1;
+        maxLineLength = Math.max(maxLineLength, line.length());
+        trimToCapacity();
+    }
+
+    private void trimToCapacity() {
+        while (count > 0 && chars + openLine.length() > maxChars) {
+            dropOldestLine();
+        }
+    }
+
+    private void dropOldestLine() {
+        chars -= lines[head].length() + 1;
+        lines[head] = null;
+        head = (head + 1) % lines.length;
+        count--;
+        droppedLines++;
+    }
+}
@@ -0,0 +1,306 @@
+package view.util;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.UIManager;
+
+/**
+ * Read only console component backed by a {@link ConsoleModel} with a fixed
+ * capacity. Only the visible lines are painted. Text can be selected with the
+ * mouse, Ctrl+C copies the selection or, without selection, the whole text.
+ * Must only be used on the EDT.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ConsolePane extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int VIEWPORT_COLUMNS = 20;
+    private static final int VIEWPORT_ROWS = 5;
+
+    private final ConsoleModel model;
+    private int anchorLine = -1;
+    private int anchorColumn;
+    private int dotLine = -1;
+    private int dotColumn;
+
+    public ConsolePane(int maxLines, long maxChars) {
+        model = new ConsoleModel(maxLines, maxChars);
+        setFont(UIManager.getFont("TextArea.font"));
+        setOpaque(true);
+        setFocusable(true);
+        setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK), "copy");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String text = hasSelection() ? getSelectedText() : getText();
+                Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(text), null);
+            }
+        });
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, InputEvent.CTRL_DOWN_MASK), "selectAll");
+        getActionMap().put("selectAll", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                anchorLine = 0;
+                anchorColumn = 0;
+                dotLine = model.getLineCount() - 1;
+                dotColumn = model.getLine(dotLine).length();
+                repaint();
+            }
+        });
+        MouseAdapter selectionListener = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                anchorLine = getLineAt(e.getY());
+                anchorColumn = getColumnAt(anchorLine, e.getX());
+                dotLine = anchorLine;
+                dotColumn = anchorColumn;
+                repaint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (anchorLine < 0) {
+                    return;
+                }
+                dotLine = getLineAt(e.getY());
+                dotColumn = getColumnAt(dotLine, e.getX());
+                scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                repaint();
+            }
+        };
+        addMouseListener(selectionListener);
+        addMouseMotionListener(selectionListener);
+    }
+
+    /**
+     * Appends text to the console.
+     *
+     * @param text the text to append
+     */
+    public void append(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int firstChangedLine = model.getLineCount() - 1;
+        Dimension oldSize = getPreferredSize();
+        int dropped = model.append(text);
+        updateSize(oldSize);
+        if (dropped > 0) {
+            moveSelectionUp(dropped);
+            // all lines moved up, the whole visible part changed
+            repaint(getVisibleRect());
+        } else {
+            Rectangle changed = new Rectangle(0, getLineY(firstChangedLine), getWidth(), getLineY(model.getLineCount()) - getLineY(firstChangedLine));
+            repaint(changed.intersection(getVisibleRect()));
+        }
+    }
+
+    public void setText(String text) {
+        model.clear();
+        model.resetDroppedLineCount();
+        anchorLine = -1;
+        dotLine = -1;
+        if (text != null) {
+            model.append(text);
+        }
+        updateSize(null);
+        repaint();
+    }
+
+    public String getText() {
+        return model.getText();
+    }
+
+    /**
+     * Get the text selected with the mouse.
+     *
+     * @return the selected text, empty without selection
+     */
+    public String getSelectedText() {
+        if (!hasSelection()) {
+            return "";
+        }
+        int[] selection = getSelection();
+        return model.getText(selection[0], selection[1], selection[2], selection[3]);
+    }
+
+    public long getDroppedLineCount() {
+        return model.getDroppedLineCount();
+    }
+
+    /**
+     * Scrolls to the last line of the console.
+     */
+    public void scrollToBottom() {
+        if (getParent() instanceof JViewport) {
+            JViewport viewport = (JViewport) getParent();
+            // lay out now, the revalidation of the last append is still pending
+            viewport.getParent().validate();
+            Dimension size = getPreferredSize();
+            int y = Math.max(0, size.height - viewport.getExtentSize().height);
+            viewport.setViewPosition(new Point(viewport.getViewPosition().x, y));
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics fm = getFontMetrics(getFont());
+        Insets insets = getInsets();
+        int width = fm.charWidth('m') * model.getMaxLineLength() + insets.left + insets.right;
+        int height = fm.getHeight() * model.getLineCount() + insets.top + insets.bottom;
+        return new Dimension(width, height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setColor(getForeground());
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+        Insets insets = getInsets();
+        int lineHeight = fm.getHeight();
+        int firstLine = Math.max(0, (clip.y - insets.top) / lineHeight);
+        int lastLine = Math.min(model.getLineCount() - 1, (clip.y + clip.height - insets.top) / lineHeight);
+        if (hasSelection()) {
+            int[] selection = getSelection();
+            Color selectionColor = UIManager.getColor("TextArea.selectionBackground");
+            g.setColor(selectionColor != null ? selectionColor : Color.LIGHT_GRAY);
+            for (int i = Math.max(firstLine, selection[0]); i <= Math.min(lastLine, selection[2]); i++) {
+                String line = model.getLine(i);
+                int from = i == selection[0] ? Math.min(selection[1], line.length()) : 0;
+                int to = i == selection[2] ? Math.min(selection[3], line.length()) : line.length();
+                int x = insets.left + fm.stringWidth(line.substring(0, from));
+                // the line break of a selected line is shown as a space
+                int width = fm.stringWidth(line.substring(from, to)) + (i < selection[2] ? fm.charWidth(' ') : 0);
+                g.fillRect(x, insets.top + i * lineHeight, width, lineHeight);
+            }
+            g.setColor(getForeground());
+        }
+        for (int i = firstLine; i <= lastLine; i++) {
+            g.drawString(model.getLine(i), insets.left, insets.top + i * lineHeight + fm.getAscent());
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        FontMetrics fm = getFontMetrics(getFont());
+        return new Dimension(fm.charWidth('m') * VIEWPORT_COLUMNS, fm.getHeight() * VIEWPORT_ROWS);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            return getFontMetrics(getFont()).getHeight();
+        }
+        return getFontMetrics(getFont()).charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+
+    private boolean hasSelection() {
+        return anchorLine >= 0 && (anchorLine != dotLine || anchorColumn != dotColumn);
+    }
+
+    /**
+     * Get the selection ordered from start to end.
+     *
+     * @return start line, start column, end line and end column
+     */
+    private int[] getSelection() {
+        if (anchorLine < dotLine || (anchorLine == dotLine && anchorColumn <= dotColumn)) {
+            return new int[]{anchorLine, anchorColumn, dotLine, dotColumn};
+        }
+        return new int[]{dotLine, dotColumn, anchorLine, anchorColumn};
+    }
+
+    private void moveSelectionUp(int lines) {
+        if (anchorLine < 0) {
+            return;
+        }
+        anchorLine -= lines;
+        dotLine -= lines;
+        if (anchorLine < 0 || dotLine < 0) {
+            // the selected text got dropped, keep only what is left of it
+            if (Math.max(anchorLine, dotLine) < 0) {
+                anchorLine = -1;
+                dotLine = -1;
+            } else if (anchorLine < 0) {
+                anchorLine = 0;
+                anchorColumn = 0;
+            } else {
+                dotLine = 0;
+                dotColumn = 0;
+            }
+        }
+    }
+
+    private int getLineAt(int y) {
+        int line = (y - getInsets().top) / getFontMetrics(getFont()).getHeight();
+        return Math.max(0, Math.min(model.getLineCount() - 1, line));
+    }
+
+    private int getColumnAt(int line, int x) {
+        FontMetrics fm = getFontMetrics(getFont());
+        String text = model.getLine(line);
+        int left = getInsets().left;
+        for (int i = 0; i < text.length(); i++) {
+            int charWidth = fm.charWidth(text.charAt(i));
+            if (x < left + charWidth / 2) {
+                return i;
+            }
+            left += charWidth;
+        }
+        return text.length();
+    }
+
+    private int getLineY(int line) {
+        return getInsets().top + line * getFontMetrics(getFont()).getHeight();
+    }
+
+    private void updateSize(Dimension oldSize) {
+        if (oldSize == null || !oldSize.equals(getPreferredSize())) {
+            revalidate();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package view.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import python.SourceMap;
+
+/**
+ * Filters the lines written to System.err before they are shown in the
+ * console. Java stack frames and Java exceptions are dropped, as well as
+ * traceback lines pointing into the preludes, which the user did not write. Traceback lines of script
+ * runs are translated with the {@link SourceMap} of their run. Every line is
+ * scanned once from the front, there are no regular expressions involved.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class ErrorLineFilter {
+
+    private static final String THREAD_PREFIX = "Exception in thread \"";
+    private static final String TRACEBACK_HEADER = "Traceback (most recent call last):";
+    private static final String FILE_PREFIX = "File \"";
+    private static final String FRAME_PREFIX = "at ";
+    private static final String MORE_PREFIX = "... ";
+    private static final String MORE_SUFFIX = " more";
+    private static final String CAUSE_PREFIX = "Caused by: ";
+    private static final String[] JAVA_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "org.python."};
+
+    private final List<String> hiddenFileNames;
+
+    /**
+     * Creates a new filter.
+     *
+     * @param hiddenFileNames the files whose traceback lines are dropped, e.g.
+     * the preludes
+     */
+    public ErrorLineFilter(Collection<String> hiddenFileNames) {
+        this.hiddenFileNames = new ArrayList<>(hiddenFileNames);
+    }
+
+    /**
+     * Filters a line and appends what is left of it.
+     *
+     * @param line the line, without the line break
+     * @param out the text to append to, the line is appended with a line
+     * break
+     * @return true if something was appended, false if the line was dropped
+     */
+    public boolean appendFiltered(CharSequence line, StringBuilder out) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        // the indentation of traceback lines is kept
+        int contentStart = 0;
+        int start = skipWhitespace(line, 0, end);
+        if (start == end || startsWith(line, start, end, TRACEBACK_HEADER)) {
+            return false;
+        }
+        if (startsWith(line, start, end, THREAD_PREFIX)) {
+            // the thread is an internal of the application, keep only the exception
+            int quote = indexOf(line, '"', start + THREAD_PREFIX.length(), end);
+            if (quote < 0) {
+                return false;
+            }
+            start = skipWhitespace(line, quote + 1, end);
+            contentStart = start;
+        }
+        SourceMap sourceMap = null;
+        if (startsWith(line, start, end, FILE_PREFIX)) {
+            int nameStart = start + FILE_PREFIX.length();
+            int quote = indexOf(line, '"', nameStart, end);
+            if (quote >= 0 && isHiddenFile(line, nameStart, quote)) {
+                return false;
+            }
+            if (quote >= 0) {
+                sourceMap = SourceMap.forGeneratedFile(line.subSequence(nameStart, quote).toString());
+            }
+        }
+        if (start == end || isJavaLine(line, start, end)) {
+            return false;
+        }
+        if (sourceMap != null) {
+            // the line of a script run, shown with the tab and line the user knows
+            out.append(sourceMap.translate(line.subSequence(contentStart, end).toString())).append('\n');
+        } else {
+            out.append(line, contentStart, end).append('\n');
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a line is part of a Java stack trace: a frame like
+     * "at java.lang.Thread.run(Thread.java:833)", the "... 3 more" of a
+     * shortened trace or a Java exception, possibly as cause.
+     */
+    private static boolean isJavaLine(CharSequence line, int start, int end) {
+        if (startsWith(line, start, end, FRAME_PREFIX) && line.charAt(end - 1) == ')') {
+            int parenthesis = indexOf(line, '(', start + FRAME_PREFIX.length(), end);
+            return parenthesis > 0 && indexOf(line, '.', start + FRAME_PREFIX.length(), parenthesis) >= 0
+                    && indexOf(line, ' ', start + FRAME_PREFIX.length(), parenthesis) < 0;
+        }
+        if (startsWith(line, start, end, MORE_PREFIX) && endsWith(line, start, end, MORE_SUFFIX)) {
+            return true;
+        }
+        if (startsWith(line, start, end, CAUSE_PREFIX)) {
+            start += CAUSE_PREFIX.length();
+        }
+        for (String javaPackage : JAVA_PACKAGES) {
+            if (startsWith(line, start, end, javaPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isHiddenFile(CharSequence line, int start, int end) {
+        for (String fileName : hiddenFileNames) {
+            if (end - start == fileName.length() && startsWith(line, start, end, fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(CharSequence s, int start, int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean startsWith(CharSequence s, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean endsWith(CharSequence s, int start, int end, String suffix) {
+        return end - start >= suffix.length() && startsWith(s, end - suffix.length(), end, suffix);
+    }
+}
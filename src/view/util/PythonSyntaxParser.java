@@ -0,0 +1,118 @@
+package view.util;
+
+import console.Log;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.AbstractParser;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParserNotice;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import python.IPythonSyntaxCheckerCallback;
+import python.PythonSyntaxChecker;
+
+/**
+ * Parser for the editor that shows Python syntax errors as notices. The
+ * syntax is checked in the background by {@link PythonSyntaxChecker}, as soon
+ * as the result arrives the text area is parsed again to show it.
+ *
+ * @author Clemens Strobel
+ * @date 2026/10/18
+ */
+public class PythonSyntaxParser extends AbstractParser {
+
+    // the text area triggers parsing after typing paused, the checker debounces on its own
+    private static final int PARSER_DELAY_MILLIS = 100;
+
+    private final RSyntaxTextArea textArea;
+    private String checkedText = null;
+    private String error = null;
+    private int errorLine = 0;
+    private int errorColumn = 0;
+
+    /**
+     * Creates a new parser and installs it in the text area.
+     *
+     * @param textArea the text area to check
+     */
+    public PythonSyntaxParser(RSyntaxTextArea textArea) {
+        this.textArea = textArea;
+        textArea.setParserDelay(PARSER_DELAY_MILLIS);
+        textArea.addParser(this);
+    }
+
+    /**
+     * Stops checking the text area, e.g. when its tab got closed.
+     */
+    public void uninstall() {
+        PythonSyntaxChecker.getInstance().cancel(this);
+        textArea.removeParser(this);
+    }
+
+    @Override
+    public ParseResult parse(RSyntaxDocument doc, String style) {
+        DefaultParseResult result = new DefaultParseResult(this);
+        String text;
+        try {
+            text = doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            Log.error(PythonSyntaxParser.class, e.getMessage());
+            return result;
+        }
+        if (!text.equals(checkedText)) {
+            checkInBackground(text);
+        }
+        // until the new result arrives the last one is shown
+        if (error != null) {
+            result.addNotice(createNotice(doc));
+        }
+        return result;
+    }
+
+    private void checkInBackground(String text) {
+        PythonSyntaxChecker.getInstance().check(this, text, new IPythonSyntaxCheckerCallback() {
+            @Override
+            public void success() {
+                showResult(text, null, 0, 0);
+            }
+
+            @Override
+            public void syntaxError(String error, int line, int column) {
+                showResult(text, error, line, column);
+            }
+
+            @Override
+            public void otherError(String error) {
+                Log.debug(PythonSyntaxParser.class, "Could not check syntax: " + error);
+            }
+        });
+    }
+
+    private void showResult(String text, String error, int line, int column) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                checkedText = text;
+                PythonSyntaxParser.this.error = error;
+                errorLine = line;
+                errorColumn = column;
+                textArea.forceReparsing(PythonSyntaxParser.this);
+            }
+        });
+    }
+
+    private DefaultParserNotice createNotice(RSyntaxDocument doc) {
+        Element root = doc.getDefaultRootElement();
+        int lineIndex = Math.max(0, Math.min(errorLine - 1, root.getElementCount() - 1));
+        Element line = root.getElement(lineIndex);
+        String message = "Syntax error: " + error + " (line " + errorLine + ", column " + errorColumn + ")";
+        int lineLength = line.getEndOffset() - line.getStartOffset();
+        if (errorColumn >= lineLength) {
+            return new DefaultParserNotice(this, message, lineIndex);
+        }
+        int offset = line.getStartOffset() + errorColumn;
+        return new DefaultParserNotice(this, message, lineIndex, offset, Math.max(1, line.getEndOffset() - 1 - offset));
+    }
+}